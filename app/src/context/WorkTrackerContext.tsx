@@ -221,6 +221,9 @@ export const WorkTrackerProvider = ({ children }: { children: ReactNode }) => {
       if (lastSession && !lastSession.endTime) {
         setIsWorking(true)
         setCurrentSession(lastSession)
+      } else {
+        setIsWorking(false)
+        setCurrentSession(null)
       }
     } catch (err) {
       setError(err instanceof Error ? err.message : 'An error occurred')
@@ -234,6 +237,49 @@ export const WorkTrackerProvider = ({ children }: { children: ReactNode }) => {
     // eslint-disable-next-line react-hooks/exhaustive-deps -- stable initial load only
   }, [])
 
+  // The backend announces sessions it auto-closed; EventSource cannot send the bearer token,
+  // so every connection opens with a short-lived ticket and reconnects with a new one
+  useEffect(() => {
+    let source: EventSource | null = null
+    let retry: ReturnType<typeof setTimeout> | null = null
+    let stopped = false
+
+    const scheduleReconnect = () => {
+      if (!stopped) {
+        retry = setTimeout(() => void connect(), 30_000)
+      }
+    }
+
+    const connect = async () => {
+      try {
+        const response = await authenticatedFetch(`${API_URL}/work/events/ticket`, { method: 'POST' })
+        if (!response.ok) {
+          throw new Error('Failed to open the event stream')
+        }
+        const { ticket } = (await response.json()) as { ticket: string }
+        if (stopped) return
+        source = new EventSource(`${API_URL}/work/events?ticket=${encodeURIComponent(ticket)}`)
+        source.addEventListener('sessions-auto-closed', () => void fetchWorkEntries())
+        source.onerror = () => {
+          source?.close()
+          source = null
+          scheduleReconnect()
+        }
+      } catch {
+        scheduleReconnect()
+      }
+    }
+
+    void connect()
+    return () => {
+      stopped = true
+      source?.close()
+      if (retry) clearTimeout(retry)
+    }
+    // Once per mount like the initial load; a ticket is fetched per connection
+    // eslint-disable-next-line react-hooks/exhaustive-deps -- one stream per mount
+  }, [])
+
   const clockIn = useCallback(async () => {
     try {
       let timestamp: string | undefined
@@ -0,0 +1,67 @@
+package de.timbang.backend.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer. Producers claim a sequence with
+ * one CAS and publish by filling its slot, so {@link #offer} never blocks and fails
+ * fast when the buffer is full. The consumer takes slots in sequence order and stops
+ * at the first claimed but not yet published one.
+ * <p>
+ * Only one thread at a time may call {@link #drainTo}.
+ */
+final class AuditRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    AuditRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    boolean offer(T item) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            // A stale head only makes the buffer look fuller than it is
+            if (sequence - head.get() >= slots.length()) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.set((int) sequence & mask, item);
+        return true;
+    }
+
+    int drainTo(List<T> target, int max) {
+        long sequence = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) sequence & mask;
+            T item = slots.get(index);
+            if (item == null) {
+                break;
+            }
+            slots.set(index, null);
+            target.add(item);
+            sequence++;
+            drained++;
+        }
+        // Slots are cleared before the head moves past them, producers never overwrite an unread slot
+        head.set(sequence);
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+}
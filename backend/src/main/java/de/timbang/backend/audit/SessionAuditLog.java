@@ -0,0 +1,264 @@
+package de.timbang.backend.audit;
+
+import de.timbang.backend.model.SessionAudit;
+import de.timbang.backend.model.WorkSession;
+import de.timbang.backend.repository.SessionAuditRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit trail of session edits and deletes, kept off the write path.
+ * <p>
+ * A write publishes its before and after image to an {@link AuditRingBuffer} after it
+ * committed, which costs one CAS. The {@code session-audit-writer} thread drains the
+ * buffer every {@code app.audit.flush-interval}, or as soon as a batch is waiting, and
+ * inserts up to {@code app.audit.batch-size} rows per transaction. A batch that fails
+ * is retried before anything newer is taken.
+ * <p>
+ * When the buffer is full, {@code app.audit.overflow} decides: {@code WRITE_THROUGH}
+ * (the default) inserts the row on the caller's thread, so the trail stays complete
+ * and only writes during the overload pay for it; {@code DROP} discards it and counts
+ * it in {@code audit.events{outcome=dropped}}. Rows still buffered when the process
+ * dies are lost; a regular shutdown writes them first.
+ */
+@Service
+public class SessionAuditLog {
+
+    public enum Overflow {
+        WRITE_THROUGH,
+        DROP
+    }
+
+    // Actor of the rows written for OpenSessionAutoCloser, which acts for no user
+    public static final String AUTO_CLOSE_ACTOR = "system:auto-close";
+
+    private static final Logger log = LoggerFactory.getLogger(SessionAuditLog.class);
+    private static final String INSERT = "INSERT INTO session_audit (session_id, user_id, action, change_version, actor, " +
+            "recorded_epoch, before_start_epoch, before_end_epoch, before_notes, after_start_epoch, after_end_epoch, after_notes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SessionAuditRepository sessionAuditRepository;
+    private final Overflow overflow;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final AuditRingBuffer<SessionAudit> buffer;
+
+    // Held by whichever thread drains the buffer; pending is only touched while holding it
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final List<SessionAudit> pending = new ArrayList<>();
+
+    private final Counter buffered;
+    private final Counter writtenThrough;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public SessionAuditLog(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            SessionAuditRepository sessionAuditRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.audit.capacity:8192}") int capacity,
+            @Value("${app.audit.batch-size:500}") int batchSize,
+            @Value("${app.audit.flush-interval:200ms}") Duration flushInterval,
+            @Value("${app.audit.overflow:WRITE_THROUGH}") Overflow overflow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sessionAuditRepository = sessionAuditRepository;
+        this.overflow = overflow;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.buffer = new AuditRingBuffer<>(capacity);
+
+        this.buffered = meterRegistry.counter("audit.events", "outcome", "buffered");
+        this.writtenThrough = meterRegistry.counter("audit.events", "outcome", "written_through");
+        this.dropped = meterRegistry.counter("audit.events", "outcome", "dropped");
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("session-audit-writer").daemon().start(this::runWriter);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(Duration.ofSeconds(10));
+        flush();
+    }
+
+    /**
+     * The before image of a session about to be changed by {@code actor}; pass it to
+     * {@link #recordEdit} or {@link #recordDelete} once the change is written.
+     */
+    public static SessionAudit capture(SessionAudit.Action action, WorkSession before, String actor) {
+        SessionAudit audit = new SessionAudit();
+        audit.setAction(action);
+        audit.setSessionId(before.getId());
+        audit.setUserId(before.getUser().getId());
+        audit.setActor(actor);
+        audit.setBeforeStart(before.getStartTime());
+        audit.setBeforeEnd(before.getEndTime());
+        audit.setBeforeNotes(before.getNotes());
+        return audit;
+    }
+
+    public void recordEdit(SessionAudit audit, WorkSession after) {
+        audit.setChangeVersion(after.getChangeVersion());
+        audit.setAfterStart(after.getStartTime());
+        audit.setAfterEnd(after.getEndTime());
+        audit.setAfterNotes(after.getNotes());
+        publish(audit);
+    }
+
+    public void recordDelete(SessionAudit audit, long changeVersion) {
+        audit.setChangeVersion(changeVersion);
+        publish(audit);
+    }
+
+    /**
+     * A session the auto-closer ended at {@code end}; nothing but its end changed.
+     */
+    public void recordAutoClose(long sessionId, long userId, Instant start, String notes, Instant end, long changeVersion) {
+        SessionAudit audit = new SessionAudit();
+        audit.setAction(SessionAudit.Action.AUTO_CLOSE);
+        audit.setSessionId(sessionId);
+        audit.setUserId(userId);
+        audit.setActor(AUTO_CLOSE_ACTOR);
+        audit.setChangeVersion(changeVersion);
+        audit.setBeforeStart(start);
+        audit.setBeforeNotes(notes);
+        audit.setAfterStart(start);
+        audit.setAfterEnd(end);
+        audit.setAfterNotes(notes);
+        publish(audit);
+    }
+
+    /**
+     * The session's audit rows in change order, including everything published before the call.
+     * Rows of earlier sessions that had the same id are left out: ids were reused before
+     * {@code work_session} had AUTOINCREMENT, and each such session's rows end with its delete.
+     *
+     * @param live whether a session with this id exists now
+     */
+    public List<SessionAudit> history(Long sessionId, Long userId, boolean live) {
+        flush();
+        List<SessionAudit> rows = sessionAuditRepository.findBySessionIdAndUserIdOrderByChangeVersionAscIdAsc(sessionId, userId);
+        // A deleted session's own delete is its last row
+        int from = 0;
+        int end = live ? rows.size() : rows.size() - 1;
+        for (int i = 0; i < end; i++) {
+            if (rows.get(i).getAction() == SessionAudit.Action.DELETE) {
+                from = i + 1;
+            }
+        }
+        return from == 0 ? rows : rows.subList(from, rows.size());
+    }
+
+    /**
+     * Writes everything published so far, waiting for a drain already in progress.
+     */
+    public void flush() {
+        while (!draining.compareAndSet(false, true)) {
+            LockSupport.parkNanos(1_000_000);
+        }
+        try {
+            drain();
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    private void publish(SessionAudit audit) {
+        audit.setRecordedAt(Instant.now());
+        if (buffer.offer(audit)) {
+            buffered.increment();
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+        if (overflow == Overflow.DROP) {
+            dropped.increment();
+            log.warn("Audit buffer full, dropped {} of session {}", audit.getAction(), audit.getSessionId());
+            return;
+        }
+        try {
+            insert(List.of(audit));
+            writtenThrough.increment();
+        } catch (RuntimeException e) {
+            // The change itself is committed, failing the request would not undo it
+            log.error("Writing the audit row for session {} failed", audit.getSessionId(), e);
+        }
+    }
+
+    private void runWriter() {
+        while (running) {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    drain();
+                } catch (RuntimeException e) {
+                    log.error("Writing session audit rows failed, retrying", e);
+                } finally {
+                    draining.set(false);
+                }
+            }
+            LockSupport.parkNanos(this, flushIntervalNanos);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            if (pending.isEmpty() && buffer.drainTo(pending, batchSize) == 0) {
+                return;
+            }
+            insert(pending);
+            pending.clear();
+        }
+    }
+
+    private void insert(List<SessionAudit> audits) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, audits, audits.size(),
+                (ps, audit) -> {
+                    ps.setLong(1, audit.getSessionId());
+                    ps.setLong(2, audit.getUserId());
+                    ps.setString(3, audit.getAction().name());
+                    ps.setObject(4, audit.getChangeVersion());
+                    ps.setString(5, audit.getActor());
+                    ps.setLong(6, audit.getRecordedAt().getEpochSecond());
+                    ps.setObject(7, epoch(audit.getBeforeStart()));
+                    ps.setObject(8, epoch(audit.getBeforeEnd()));
+                    ps.setString(9, audit.getBeforeNotes());
+                    ps.setObject(10, epoch(audit.getAfterStart()));
+                    ps.setObject(11, epoch(audit.getAfterEnd()));
+                    ps.setString(12, audit.getAfterNotes());
+                }));
+    }
+
+    private static Long epoch(Instant instant) {
+        return instant != null ? instant.getEpochSecond() : null;
+    }
+}
@@ -0,0 +1,43 @@
+package de.timbang.backend.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import de.timbang.backend.monitoring.StatementMetricsListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+@Configuration
+@ConditionalOnProperty(name = "app.sql-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceProxyConfig {
+
+    /**
+     * Wraps the pool so every statement, whether from Hibernate or a JdbcTemplate,
+     * passes {@link StatementMetricsListener}. The proxy unwraps to the Hikari pool,
+     * so pool metrics and health checks still find it.
+     */
+    @Bean
+    public static BeanPostProcessor statementCountingDataSource(Environment environment) {
+        Duration slowQueryThreshold = environment.getProperty(
+                "app.sql-stats.slow-query-threshold", Duration.class, Duration.ofMillis(100));
+        StatementMetricsListener listener = new StatementMetricsListener(slowQueryThreshold);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(listener)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package de.timbang.backend.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Replaces resolved static resources with in-memory copies, so that together with
+ * the {@code CachingResourceResolver} in front of it a hot asset is read from the
+ * jar once instead of on every request. Response headers of encoded variants
+ * (Content-Encoding, Vary) are kept. Files above the size limit are streamed as before.
+ */
+class InMemoryResourceResolver extends AbstractResourceResolver {
+
+    private final long maxFileBytes;
+
+    InMemoryResourceResolver(long maxFileBytes) {
+        this.maxFileBytes = maxFileBytes;
+    }
+
+    @Override
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+            List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null || resource instanceof InMemoryResource) {
+            return resource;
+        }
+        try {
+            if (resource.contentLength() > maxFileBytes) {
+                return resource;
+            }
+            byte[] content;
+            try (InputStream in = resource.getInputStream()) {
+                content = in.readAllBytes();
+            }
+            HttpHeaders headers = resource instanceof HttpResource httpResource
+                    ? httpResource.getResponseHeaders() : HttpHeaders.EMPTY;
+            return new InMemoryResource(content, resource.getFilename(), resource.lastModified(), headers);
+        } catch (IOException e) {
+            return resource;
+        }
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    private static final class InMemoryResource extends ByteArrayResource implements HttpResource {
+
+        private final String filename;
+        private final long lastModified;
+        private final HttpHeaders headers;
+
+        InMemoryResource(byte[] content, String filename, long lastModified, HttpHeaders headers) {
+            super(content, filename);
+            this.filename = filename;
+            this.lastModified = lastModified;
+            this.headers = headers;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            return headers;
+        }
+    }
+}
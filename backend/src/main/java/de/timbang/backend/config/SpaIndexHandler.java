@@ -0,0 +1,63 @@
+package de.timbang.backend.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpRequestHandler;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Answers client side routes with the bundled {@code index.html}, read once and kept
+ * in memory. Replaces a {@code forward:/index.html} view controller, which resolved a
+ * view and dispatched the request a second time for every page load. The page is
+ * never cached by the browser so a new deployment's asset hashes are picked up.
+ */
+class SpaIndexHandler implements HttpRequestHandler {
+
+    private static final String CACHE_CONTROL = CacheControl.noCache().getHeaderValue();
+
+    private final Resource index = new ClassPathResource("static/index.html");
+    private volatile byte[] content;
+
+    @Override
+    public void handleRequest(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            response.setHeader(HttpHeaders.ALLOW, "GET, HEAD");
+            response.sendError(HttpStatus.METHOD_NOT_ALLOWED.value());
+            return;
+        }
+
+        byte[] body = content();
+        if (body == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        response.setContentType(MediaType.TEXT_HTML_VALUE + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setContentLength(body.length);
+        if ("GET".equals(method)) {
+            response.getOutputStream().write(body);
+        }
+    }
+
+    private byte[] content() throws IOException {
+        byte[] body = content;
+        if (body == null && index.exists()) {
+            try (InputStream in = index.getInputStream()) {
+                body = in.readAllBytes();
+            }
+            content = body;
+        }
+        return body;
+    }
+}
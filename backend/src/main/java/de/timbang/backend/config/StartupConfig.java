@@ -0,0 +1,36 @@
+package de.timbang.backend.config;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * With {@code spring.main.lazy-initialization} (the faststart profile) a bean is only
+     * created when first used. Beans that prepare the schema, schedule jobs or listen
+     * for events have no caller that would create them, so they stay eager.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerApplicationBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && beanType.getName().startsWith("de.timbang.backend.")
+                && Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(beanType))
+                        .anyMatch(StartupConfig::needsEagerBean);
+    }
+
+    private static boolean needsEagerBean(Method method) {
+        return method.isAnnotationPresent(PostConstruct.class)
+                || method.isAnnotationPresent(Scheduled.class)
+                || method.isAnnotationPresent(EventListener.class);
+    }
+}
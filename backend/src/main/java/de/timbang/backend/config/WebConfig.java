@@ -1,28 +1,62 @@
 package de.timbang.backend.config;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
-    @Override
-    public void addViewControllers(ViewControllerRegistry registry) {
-        registry.addViewController("/")
-            .setViewName("forward:/index.html");
-        registry.addViewController("/**/{path:[^\\.]*}")
-            .setViewName("forward:/index.html");
+
+    // Assets up to this size are kept in memory once requested
+    private static final long MAX_IN_MEMORY_ASSET_BYTES = 1024 * 1024;
+
+    // Lets clients ask for "application/cbor" instead of JSON, using the same DTOs and Jackson settings
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    // Same order as the view controllers this replaces: after @RequestMapping handlers, before static resources
+    @Bean
+    public SimpleUrlHandlerMapping spaIndexHandlerMapping() {
+        SpaIndexHandler handler = new SpaIndexHandler();
+        SimpleUrlHandlerMapping mapping = new SimpleUrlHandlerMapping(Map.of(
+                "/", handler,
+                "/**/{path:[^\\.]*}", handler
+        ), 1);
+        mapping.setPatternParser(null);
+        return mapping;
     }
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Vite puts content-hashed files under /assets, their URL changes whenever their content does
+        registry.addResourceHandler("/assets/**")
+            .addResourceLocations("classpath:/static/assets/")
+            .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+            .resourceChain(true)
+            .addResolver(new InMemoryResourceResolver(MAX_IN_MEMORY_ASSET_BYTES))
+            .addResolver(new EncodedResourceResolver());
+
         registry.addResourceHandler("/**")
             .addResourceLocations("classpath:/static/")
             .setCachePeriod(3600)
-            .resourceChain(true);
+            .resourceChain(true)
+            .addResolver(new InMemoryResourceResolver(MAX_IN_MEMORY_ASSET_BYTES))
+            .addResolver(new EncodedResourceResolver());
     }
 
     @Override
@@ -2,6 +2,7 @@ package de.timbang.backend.controller;
 
 import java.util.Map;
 
+import de.timbang.backend.exception.BadRequestException;
 import de.timbang.backend.model.JwtTokenPacket;
 import de.timbang.backend.model.dto.request.RefreshTokenRequest;
 import org.springframework.http.HttpStatus;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.RestController;
 import de.timbang.backend.model.dto.request.LoginRequest;
 import de.timbang.backend.model.dto.request.RegisterRequest;
 import de.timbang.backend.service.AuthService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
@@ -29,23 +31,14 @@ public class AuthController {
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
-        try {
-            String result = authService.register(request);
-            return ResponseEntity.ok(Map.of("message", result));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        String result = authService.register(request);
+        return ResponseEntity.ok(Map.of("message", result));
     }
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest credentials) {
-        try {
-            JwtTokenPacket jwtTokenPacketResponseEntity = authService.login(credentials);
-            return ResponseEntity.ok(jwtTokenPacketResponseEntity);
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", e.getMessage()));
-        }
+        JwtTokenPacket jwtTokenPacketResponseEntity = authService.login(credentials);
+        return ResponseEntity.ok(jwtTokenPacketResponseEntity);
     }
 
     @GetMapping("/validate")
@@ -57,7 +50,12 @@ public class AuthController {
         }
 
         String token = authHeader.substring(7);
-        String username = authService.extractUsernameFromToken(token);
+        String username;
+        try {
+            username = authService.extractUsernameFromToken(token);
+        } catch (JwtException e) {
+            username = null;
+        }
         if (username == null || !authService.validateToken(token, username)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("valid", false, "error", "Invalid or expired token"));
@@ -73,19 +71,25 @@ public class AuthController {
 
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenRequest request) {
-        try {
-            String refreshToken = request.refreshToken();
-            if (refreshToken == null || !refreshToken.startsWith("Bearer ")) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Refresh token required"));
-            }
+        String refreshToken = request.refreshToken();
+        if (refreshToken == null || !refreshToken.startsWith("Bearer ")) {
+            throw new BadRequestException("Refresh token required");
+        }
 
-            String token = refreshToken.substring(7);
-            JwtTokenPacket jwtTokenPacket = authService.refreshToken(token);
+        String token = refreshToken.substring(7);
+        JwtTokenPacket jwtTokenPacket = authService.refreshToken(token);
 
-            return ResponseEntity.ok(jwtTokenPacket);
-        } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(Map.of("error", e.getMessage()));
-        }
+        return ResponseEntity.ok(jwtTokenPacket);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(HttpServletRequest request, @RequestBody(required = false) RefreshTokenRequest body) {
+        String authHeader = request.getHeader("Authorization");
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        String refreshToken = body != null && body.refreshToken() != null && body.refreshToken().startsWith("Bearer ")
+                ? body.refreshToken().substring(7) : null;
+
+        authService.logout(accessToken, refreshToken);
+        return ResponseEntity.ok(Map.of("message", "Logged out"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package de.timbang.backend.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import de.timbang.backend.exception.ForbiddenException;
+import de.timbang.backend.model.dto.response.BackupResponse;
+import de.timbang.backend.security.AdminUsers;
+import de.timbang.backend.service.DatabaseBackupService;
+
+// Database snapshots, only for usernames listed in app.admin-usernames
+@RestController
+@RequestMapping("/api/v1/backups")
+public class BackupController {
+
+    private final DatabaseBackupService backupService;
+    private final AdminUsers adminUsers;
+
+    public BackupController(DatabaseBackupService backupService, AdminUsers adminUsers) {
+        this.backupService = backupService;
+        this.adminUsers = adminUsers;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<BackupResponse>> listBackups(Authentication auth) {
+        requireAdmin(auth);
+        return ResponseEntity.ok(backupService.listBackups());
+    }
+
+    @PostMapping
+    public ResponseEntity<BackupResponse> createBackup(Authentication auth) {
+        requireAdmin(auth);
+        return ResponseEntity.ok(backupService.backup());
+    }
+
+    private void requireAdmin(Authentication auth) {
+        if (!adminUsers.isAdmin(auth.getName())) {
+            throw new ForbiddenException("Only administrators can manage backups");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package de.timbang.backend.controller;
 
+import de.timbang.backend.exception.NotFoundException;
 import de.timbang.backend.model.Holiday;
 import de.timbang.backend.model.State;
 import de.timbang.backend.model.dto.response.HolidayResponse;
@@ -27,9 +28,11 @@ public class HolidayController {
 
     @GetMapping("/state/{stateString}")
     public ResponseEntity<?> getHolidaysByState(@PathVariable String stateString) {
-        State state = State.valueOf(stateString.toUpperCase());
-        if  (state == null) {
-            ResponseEntity.notFound().build();
+        State state;
+        try {
+            state = State.valueOf(stateString.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new NotFoundException("Unknown state");
         }
 
         List<Holiday> holidaysByState = this.holidayService.getHolidaysByState(state);
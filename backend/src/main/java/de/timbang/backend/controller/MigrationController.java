@@ -0,0 +1,57 @@
+package de.timbang.backend.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import de.timbang.backend.exception.ConflictException;
+import de.timbang.backend.exception.ForbiddenException;
+import de.timbang.backend.migration.WorkEntryMigration;
+import de.timbang.backend.model.dto.response.MigrationStatusResponse;
+import de.timbang.backend.security.AdminUsers;
+
+// Progress and control of the WorkEntry migration, only for usernames listed in app.admin-usernames
+@RestController
+@RequestMapping("/api/v1/migration")
+public class MigrationController {
+
+    private final WorkEntryMigration workEntryMigration;
+    private final AdminUsers adminUsers;
+
+    public MigrationController(WorkEntryMigration workEntryMigration, AdminUsers adminUsers) {
+        this.workEntryMigration = workEntryMigration;
+        this.adminUsers = adminUsers;
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<MigrationStatusResponse> getStatus(Authentication auth) {
+        requireAdmin(auth);
+        return ResponseEntity.ok(workEntryMigration.status());
+    }
+
+    @PostMapping("/run")
+    public ResponseEntity<MigrationStatusResponse> run(Authentication auth) {
+        requireAdmin(auth);
+        if (!workEntryMigration.start()) {
+            throw new ConflictException("The WorkEntry migration is already running");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(workEntryMigration.status());
+    }
+
+    @PostMapping("/cleanup")
+    public ResponseEntity<Void> cleanup(Authentication auth) {
+        requireAdmin(auth);
+        workEntryMigration.cleanup();
+        return ResponseEntity.noContent().build();
+    }
+
+    private void requireAdmin(Authentication auth) {
+        if (!adminUsers.isAdmin(auth.getName())) {
+            throw new ForbiddenException("Only administrators can manage migrations");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package de.timbang.backend.controller;
+
+import java.time.YearMonth;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import de.timbang.backend.exception.ForbiddenException;
+import de.timbang.backend.report.TimesheetFormat;
+import de.timbang.backend.report.TimesheetService;
+import de.timbang.backend.security.AdminUsers;
+
+@RestController
+@RequestMapping("/api/v1/work/timesheets")
+public class TimesheetController {
+
+    private final TimesheetService timesheetService;
+    private final AdminUsers adminUsers;
+
+    public TimesheetController(TimesheetService timesheetService, AdminUsers adminUsers) {
+        this.timesheetService = timesheetService;
+        this.adminUsers = adminUsers;
+    }
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> getTimesheet(
+            Authentication auth,
+            @RequestParam YearMonth month,
+            @RequestParam(defaultValue = "PDF") TimesheetFormat format) {
+        String username = auth.getName();
+        return attachment(username + "-" + month + "." + format.getExtension(), format.getMediaType(),
+                out -> timesheetService.writeTimesheet(username, month, format, out));
+    }
+
+    // ZIP with one timesheet per user, only for usernames listed in app.admin-usernames
+    @GetMapping("/all")
+    public ResponseEntity<StreamingResponseBody> getAllTimesheets(
+            Authentication auth,
+            @RequestParam YearMonth month,
+            @RequestParam(defaultValue = "PDF") TimesheetFormat format) {
+        if (!adminUsers.isAdmin(auth.getName())) {
+            throw new ForbiddenException("Only administrators can export all timesheets");
+        }
+        return attachment("timesheets-" + month + ".zip", "application/zip",
+                out -> timesheetService.writeAllTimesheets(month, format, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> attachment(String filename, String mediaType, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(MediaType.parseMediaType(mediaType))
+                .body(body);
+    }
+}
@@ -1,6 +1,8 @@
 package de.timbang.backend.controller;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 
@@ -8,6 +10,7 @@ import de.timbang.backend.model.WorkSession;
 import de.timbang.backend.model.dto.response.WorkSessionResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,47 +19,72 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import de.timbang.backend.model.dto.request.ClockEntryRequest;
 import de.timbang.backend.model.dto.request.EditWorkEntryRequest;
 import de.timbang.backend.model.dto.request.ManualWorkEntryRequest;
 import de.timbang.backend.model.dto.request.WorkConfigRequest;
+import de.timbang.backend.model.dto.response.CompactWorkSessionsResponse;
+import de.timbang.backend.model.dto.response.ExpectedHoursResponse;
+import de.timbang.backend.model.dto.response.MonthlyBalanceResponse;
+import de.timbang.backend.model.dto.response.SessionChangesResponse;
 import de.timbang.backend.model.dto.response.WorkConfigResponse;
+import de.timbang.backend.security.JwtService;
+import de.timbang.backend.service.EntriesResponseCache;
+import de.timbang.backend.service.IdempotencyStore;
+import de.timbang.backend.service.MonthlyBalanceService;
+import de.timbang.backend.service.SessionEventBroadcaster;
 import de.timbang.backend.service.WorkService;
 
 @RestController
 @RequestMapping("/api/v1/work")
 public class WorkController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     @Autowired
     private WorkService workService;
 
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private EntriesResponseCache entriesResponseCache;
+
+    @Autowired
+    private MonthlyBalanceService monthlyBalanceService;
+
+    @Autowired
+    private SessionEventBroadcaster sessionEventBroadcaster;
+
+    @Autowired
+    private JwtService jwtService;
+
     @PostMapping("/clock-in")
     public ResponseEntity<?> clockIn(
             Authentication auth,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @RequestBody(required = false) ClockEntryRequest request) {
-        try {
-            WorkSessionResponse entry = workService.clockIn(auth.getName(), request);
-            return ResponseEntity.ok(entry);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        WorkSessionResponse entry = idempotencyStore.execute(auth.getName(), "clock-in", idempotencyKey, request,
+                () -> workService.clockIn(auth.getName(), request));
+        return ResponseEntity.ok(entry);
     }
 
     @PostMapping("/clock-out/{clockInId}")
     public ResponseEntity<?> clockOut(
             Authentication auth,
             @PathVariable Long clockInId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @RequestBody(required = false) ClockEntryRequest request) {
-        try {
-            WorkSessionResponse entry = workService.clockOut(auth.getName(), clockInId, request);
-            return ResponseEntity.ok(entry);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        WorkSessionResponse entry = idempotencyStore.execute(auth.getName(), "clock-out/" + clockInId,
+                idempotencyKey, request,
+                () -> workService.clockOut(auth.getName(), clockInId, request));
+        return ResponseEntity.ok(entry);
     }
 
     @GetMapping("/entries")
@@ -64,34 +92,94 @@ public class WorkController {
             Authentication auth,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
-        try {
-            List<WorkSessionResponse> entries = workService.getEntries(auth.getName(), start, end);
-            return ResponseEntity.ok(entries);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        List<WorkSessionResponse> entries = workService.getEntries(auth.getName(), start, end);
+        return ResponseEntity.ok(entries);
+    }
+
+    // JSON is served from pre-serialized bytes, other negotiated formats (CBOR) use the handler above
+    @GetMapping(value = "/entries", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getJsonEntries(
+            Authentication auth,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        byte[] entries = entriesResponseCache.getJson(auth.getName(), start, end, "json",
+                () -> workService.getEntries(auth.getName(), start, end));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(entries);
+    }
+
+    @GetMapping(value = "/entries", produces = CompactWorkSessionsResponse.MEDIA_TYPE)
+    public ResponseEntity<?> getCompactEntries(
+            Authentication auth,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        byte[] entries = entriesResponseCache.getJson(auth.getName(), start, end, "compact",
+                () -> workService.getCompactEntries(auth.getName(), start, end));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(CompactWorkSessionsResponse.MEDIA_TYPE))
+                .body(entries);
     }
 
     @GetMapping("/entries/{page}")
     public ResponseEntity<?> getEntries(
             Authentication auth,
             @PathVariable int page) {
-        try {
-            List<WorkSessionResponse> entries = workService.getEntriesByPage(auth.getName(), page);
-            return ResponseEntity.ok(entries);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        List<WorkSessionResponse> entries = workService.getEntriesByPage(auth.getName(), page);
+        return ResponseEntity.ok(entries);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchEntries(
+            Authentication auth,
+            @RequestParam String q,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page) {
+        List<WorkSessionResponse> entries = workService.searchSessions(auth.getName(), q, from, to, page);
+        return ResponseEntity.ok(entries);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(
+            Authentication auth,
+            @RequestParam(defaultValue = "0") long since) {
+        SessionChangesResponse changes = workService.getChangesSince(auth.getName(), since);
+        return ResponseEntity.ok(changes);
+    }
+
+    // Server-sent events telling the client to sync through /changes, e.g. after sessions were auto-closed.
+    // Authenticated with ?ticket= from /events/ticket, EventSource cannot send the bearer token
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getEvents(Authentication auth) {
+        return sessionEventBroadcaster.subscribe(auth.getName());
+    }
+
+    @PostMapping("/events/ticket")
+    public ResponseEntity<?> createEventsTicket(Authentication auth) {
+        return ResponseEntity.ok(Map.of("ticket", jwtService.generateEventsTicket(auth.getName())));
     }
 
     @GetMapping("/config")
     public ResponseEntity<?> getConfig(Authentication auth) {
-        try {
-            WorkConfigResponse config = workService.getConfig(auth.getName());
-            return ResponseEntity.ok(config);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        WorkConfigResponse config = workService.getConfig(auth.getName());
+        return ResponseEntity.ok(config);
+    }
+
+    @GetMapping("/expected-hours")
+    public ResponseEntity<?> getExpectedHours(
+            Authentication auth,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        ExpectedHoursResponse expectedHours = workService.getExpectedHours(auth.getName(), start, end);
+        return ResponseEntity.ok(expectedHours);
+    }
+
+    // Written by the month-end balance job, 404 until the job has covered the month
+    @GetMapping("/balance")
+    public ResponseEntity<?> getMonthlyBalance(
+            Authentication auth,
+            @RequestParam YearMonth month) {
+        MonthlyBalanceResponse balance = monthlyBalanceService.getBalance(auth.getName(), month);
+        return ResponseEntity.ok(balance);
     }
 
     @PutMapping("/config")
@@ -109,16 +197,19 @@ public class WorkController {
         return ResponseEntity.ok().build();
     }
 
+    @GetMapping("/entries/{sessionId}/history")
+    public ResponseEntity<?> getSessionHistory(
+            Authentication auth,
+            @PathVariable Long sessionId) {
+        return ResponseEntity.ok(workService.getSessionHistory(auth.getName(), sessionId));
+    }
+
     @PutMapping("/entries/{entryId}")
     public ResponseEntity<?> editWorkEntry(
             Authentication auth,
             @PathVariable Long entryId,
             @RequestBody EditWorkEntryRequest request) {
-        try {
-            WorkSessionResponse entry = workService.editWorkEntry(auth.getName(), entryId, request);
-            return ResponseEntity.ok(entry);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+        WorkSessionResponse entry = workService.editWorkEntry(auth.getName(), entryId, request);
+        return ResponseEntity.ok(entry);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,22 @@
+package de.timbang.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The request is malformed or fails validation.
+ */
+public class BadRequestException extends BusinessException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    public BadRequestException(String message, Object detail) {
+        super(message, detail);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.BAD_REQUEST;
+    }
+}
@@ -0,0 +1,32 @@
+package de.timbang.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * An expected rejection of a request (bad input, missing entity, ...). These are
+ * thrown on ordinary request paths, so they skip stack trace capture; the message
+ * is all that reaches the client. Mapped to a response by {@link GlobalExceptionHandler}.
+ * <p>
+ * The message is a constant; request data such as the rejected value goes into the
+ * detail, which is appended in parentheses and keeps the body out of the handler's cache.
+ */
+public abstract class BusinessException extends RuntimeException {
+
+    private final boolean constantMessage;
+
+    protected BusinessException(String message) {
+        super(message, null, false, false);
+        this.constantMessage = true;
+    }
+
+    protected BusinessException(String message, Object detail) {
+        super(message + " (" + detail + ")", null, false, false);
+        this.constantMessage = false;
+    }
+
+    public abstract HttpStatus getStatus();
+
+    public boolean hasConstantMessage() {
+        return constantMessage;
+    }
+}
@@ -0,0 +1,18 @@
+package de.timbang.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The request conflicts with the current state, e.g. a duplicate username.
+ */
+public class ConflictException extends BusinessException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.CONFLICT;
+    }
+}
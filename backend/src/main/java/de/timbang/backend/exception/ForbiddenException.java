@@ -0,0 +1,18 @@
+package de.timbang.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The caller is authenticated but not allowed to do this.
+ */
+public class ForbiddenException extends BusinessException {
+
+    public ForbiddenException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.FORBIDDEN;
+    }
+}
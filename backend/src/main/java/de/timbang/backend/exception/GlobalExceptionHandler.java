@@ -0,0 +1,86 @@
+package de.timbang.backend.exception;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Turns expected errors into {@code {"error": "..."}} responses. Bodies of constant
+ * messages are serialized once and reused; messages carrying request data (see
+ * {@link BusinessException#hasConstantMessage()}) are serialized per call, so they
+ * never take a cache slot. {@link #MAX_CACHED_BODIES} only guards against a
+ * constant-looking message that is not.
+ * <p>
+ * Bodies are written to the response directly: Spring Data REST registers a Jackson
+ * converter ahead of the byte array one, which would send a returned {@code byte[]}
+ * as a base64 string.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    private static final int MAX_CACHED_BODIES = 256;
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, byte[]> bodies = new ConcurrentHashMap<>();
+
+    public GlobalExceptionHandler(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @ExceptionHandler(BusinessException.class)
+    public void handleBusinessException(BusinessException e, HttpServletResponse response) throws IOException {
+        byte[] body = e.hasConstantMessage() ? body(e.getMessage()) : serialize(e.getMessage());
+        write(response, e.getStatus(), body);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public void handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException e, HttpServletResponse response)
+            throws IOException {
+        write(response, HttpStatus.CONFLICT, body("Work session was modified concurrently"));
+    }
+
+    // Malformed, expired or wrongly signed tokens presented to the auth endpoints
+    @ExceptionHandler(JwtException.class)
+    public void handleJwtException(JwtException e, HttpServletResponse response) throws IOException {
+        write(response, HttpStatus.UNAUTHORIZED, body("Invalid token"));
+    }
+
+    private static void write(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    byte[] body(String message) {
+        String key = message != null ? message : "";
+        byte[] body = bodies.get(key);
+        if (body == null) {
+            body = serialize(key);
+            if (bodies.size() < MAX_CACHED_BODIES) {
+                bodies.putIfAbsent(key, body);
+            }
+        }
+        return body;
+    }
+
+    private byte[] serialize(String message) {
+        try {
+            return objectMapper.writeValueAsBytes(Map.of("error", message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package de.timbang.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The requested entity does not exist or does not belong to the caller.
+ */
+public class NotFoundException extends BusinessException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.NOT_FOUND;
+    }
+}
@@ -0,0 +1,18 @@
+package de.timbang.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Credentials or token were rejected.
+ */
+public class UnauthorizedException extends BusinessException {
+
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.UNAUTHORIZED;
+    }
+}
@@ -0,0 +1,19 @@
+package de.timbang.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The request is well formed but cannot be applied, e.g. an idempotency key reused
+ * for a different request.
+ */
+public class UnprocessableEntityException extends BusinessException {
+
+    public UnprocessableEntityException(String message) {
+        super(message);
+    }
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.UNPROCESSABLE_ENTITY;
+    }
+}
@@ -0,0 +1,29 @@
+package de.timbang.backend.migration;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Reads zone-less {@code LocalDateTime} columns written by older versions. Depending
+ * on the JDBC driver settings they hold either text or epoch milliseconds of the
+ * server's default zone.
+ */
+final class LegacyTimestamps {
+
+    private LegacyTimestamps() {
+    }
+
+    static LocalDateTime toLocalDateTime(Object legacyValue) {
+        if (legacyValue == null) {
+            return null;
+        }
+        if (legacyValue instanceof Number millis) {
+            return new Timestamp(millis.longValue()).toLocalDateTime();
+        }
+        String text = legacyValue.toString().trim();
+        if (text.chars().allMatch(Character::isDigit)) {
+            return new Timestamp(Long.parseLong(text)).toLocalDateTime();
+        }
+        return LocalDateTime.parse(text.replace(' ', 'T'));
+    }
+}
@@ -0,0 +1,333 @@
+package de.timbang.backend.migration;
+
+import de.timbang.backend.exception.ConflictException;
+import de.timbang.backend.model.MigrationCheckpoint;
+import de.timbang.backend.model.dto.response.MigrationStatusResponse;
+import de.timbang.backend.repository.MigrationCheckpointRepository;
+import de.timbang.backend.service.ChangeVersionService;
+import de.timbang.backend.service.SessionTimelineCache;
+import de.timbang.backend.service.UserWriteVersions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pairs the legacy {@code work_entry} events (one row per CLOCK_IN or CLOCK_OUT) into
+ * {@code work_session} rows.
+ * <p>
+ * Users are walked in id order. Each user's events are read in keyset chunks along
+ * {@code idx_work_entry_user_time} and paired in one ordered pass: a clock-out closes
+ * the pending clock-in, a clock-in that is followed by another clock-in, or by nothing,
+ * becomes an open session, and a clock-out without a clock-in is skipped. Notes come
+ * from the clock-in, or from the clock-out when the clock-in has none. A user's
+ * sessions are inserted through the versioned write path and committed together with
+ * the checkpoint, so an interrupted run resumes at the first unfinished user, and a
+ * session whose start already exists for the user is not inserted twice.
+ * <p>
+ * Runs in the background after startup until it has completed once. The legacy table
+ * is kept until {@link #cleanup()} drops it.
+ */
+@Component
+public class WorkEntryMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkEntryMigration.class);
+
+    static final String NAME = "work-entry-to-session";
+    private static final String TABLE = "work_entry";
+    private static final int USER_BATCH_SIZE = 100;
+    private static final int ENTRY_CHUNK_SIZE = 1000;
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MigrationCheckpointRepository checkpointRepository;
+    private final ChangeVersionService changeVersionService;
+    private final SessionTimelineCache timelineCache;
+    private final UserWriteVersions userWriteVersions;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public WorkEntryMigration(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MigrationCheckpointRepository checkpointRepository,
+            ChangeVersionService changeVersionService,
+            SessionTimelineCache timelineCache,
+            UserWriteVersions userWriteVersions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.changeVersionService = changeVersionService;
+        this.timelineCache = timelineCache;
+        this.userWriteVersions = userWriteVersions;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (legacyTablePresent() && loadCheckpoint().getStatus() != MigrationCheckpoint.Status.COMPLETED) {
+            start();
+        }
+    }
+
+    /**
+     * Starts the migration in the background, returns false if it is already running.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofPlatform().name("work-entry-migration").daemon().start(() -> {
+            try {
+                migrate();
+            } catch (RuntimeException e) {
+                log.error("WorkEntry migration failed, it resumes on the next start", e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public MigrationStatusResponse status() {
+        MigrationCheckpoint checkpoint = loadCheckpoint();
+        boolean present = legacyTablePresent();
+        long totalUsers = present
+                ? jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT user_id) FROM " + TABLE, Long.class)
+                : checkpoint.getProcessedUsers();
+        MigrationCheckpoint.Status status = running.get() ? MigrationCheckpoint.Status.RUNNING : checkpoint.getStatus();
+        return new MigrationStatusResponse(status, present, totalUsers, checkpoint.getProcessedUsers(),
+                checkpoint.getProcessedEntries(), checkpoint.getCreatedSessions(), checkpoint.getSkippedEntries(),
+                checkpoint.getError());
+    }
+
+    /**
+     * Drops the legacy table, only once the migration has completed.
+     */
+    public void cleanup() {
+        if (running.get() || loadCheckpoint().getStatus() != MigrationCheckpoint.Status.COMPLETED) {
+            throw new ConflictException("The WorkEntry migration has not completed yet");
+        }
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE);
+        log.info("Dropped the legacy {} table", TABLE);
+    }
+
+    void migrate() {
+        if (!legacyTablePresent()) {
+            return;
+        }
+        MigrationCheckpoint checkpoint = loadCheckpoint();
+        if (checkpoint.getStatus() == MigrationCheckpoint.Status.COMPLETED) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_work_entry_user_time ON " + TABLE + " (user_id, timestamp, id)");
+
+        checkpoint.setStatus(MigrationCheckpoint.Status.RUNNING);
+        checkpoint.setError(null);
+        checkpoint.setUpdatedAt(Instant.now());
+        checkpoint = checkpointRepository.save(checkpoint);
+
+        try {
+            List<UserRow> users;
+            do {
+                users = loadUsers(checkpoint.getLastUserId());
+                for (UserRow user : users) {
+                    migrateUser(checkpoint, user);
+                }
+            } while (users.size() == USER_BATCH_SIZE);
+
+            checkpoint.setStatus(MigrationCheckpoint.Status.COMPLETED);
+            log.info("WorkEntry migration completed: {} users, {} entries, {} sessions created, {} entries skipped",
+                    checkpoint.getProcessedUsers(), checkpoint.getProcessedEntries(),
+                    checkpoint.getCreatedSessions(), checkpoint.getSkippedEntries());
+        } catch (RuntimeException e) {
+            checkpoint.setStatus(MigrationCheckpoint.Status.FAILED);
+            checkpoint.setError(e.getMessage());
+            throw e;
+        } finally {
+            checkpoint.setUpdatedAt(Instant.now());
+            checkpointRepository.save(checkpoint);
+        }
+    }
+
+    // The checkpoint row is updated in the user's transaction, the entity only once it committed
+    private void migrateUser(MigrationCheckpoint checkpoint, UserRow user) {
+        SessionPairing result = changeVersionService.writeVersioned(version -> transactionTemplate.execute(status -> {
+            SessionPairing pairing = new SessionPairing(user, version);
+            List<EntryRow> chunk = loadEntries(user.id(), null);
+            while (!chunk.isEmpty()) {
+                for (EntryRow entry : chunk) {
+                    pairing.accept(entry);
+                }
+                if (chunk.size() < ENTRY_CHUNK_SIZE) {
+                    break;
+                }
+                chunk = loadEntries(user.id(), chunk.get(chunk.size() - 1));
+            }
+            pairing.finish();
+
+            jdbcTemplate.update(
+                    "UPDATE migration_checkpoint SET last_user_id = ?, processed_users = processed_users + 1, " +
+                            "processed_entries = processed_entries + ?, created_sessions = created_sessions + ?, " +
+                            "skipped_entries = skipped_entries + ?, updated_epoch = ? WHERE name = ?",
+                    user.id(), pairing.entries, pairing.created, pairing.skipped,
+                    Instant.now().getEpochSecond(), NAME);
+            return pairing;
+        }));
+
+        checkpoint.setLastUserId(user.id());
+        checkpoint.setProcessedUsers(checkpoint.getProcessedUsers() + 1);
+        checkpoint.setProcessedEntries(checkpoint.getProcessedEntries() + result.entries);
+        checkpoint.setCreatedSessions(checkpoint.getCreatedSessions() + result.created);
+        checkpoint.setSkippedEntries(checkpoint.getSkippedEntries() + result.skipped);
+
+        timelineCache.invalidate(user.id());
+        if (user.username() != null) {
+            userWriteVersions.bump(user.username());
+        }
+    }
+
+    // Users with legacy events, including ones whose user row is gone
+    private List<UserRow> loadUsers(long afterUserId) {
+        return jdbcTemplate.query(
+                "SELECT e.user_id, u.username, u.zone_id FROM " +
+                        "(SELECT DISTINCT user_id FROM " + TABLE + " WHERE user_id > ? ORDER BY user_id LIMIT ?) e " +
+                        "LEFT JOIN user u ON u.id = e.user_id ORDER BY e.user_id",
+                (rs, rowNum) -> {
+                    String zoneId = rs.getString("zone_id");
+                    return new UserRow(
+                            rs.getLong("user_id"),
+                            rs.getString("username"),
+                            zoneId != null ? ZoneId.of(zoneId) : ZoneId.systemDefault());
+                },
+                afterUserId, USER_BATCH_SIZE);
+    }
+
+    // The legacy timestamp is bound back as read, so the keyset compares like the index does
+    private List<EntryRow> loadEntries(long userId, EntryRow after) {
+        String select = "SELECT id, timestamp, type, notes FROM " + TABLE + " WHERE user_id = ? ";
+        String order = " ORDER BY timestamp, id LIMIT " + ENTRY_CHUNK_SIZE;
+        if (after == null) {
+            return jdbcTemplate.query(select + order, (rs, rowNum) -> toEntry(rs.getLong("id"),
+                    rs.getObject("timestamp"), rs.getString("type"), rs.getString("notes")), userId);
+        }
+        return jdbcTemplate.query(select + "AND (timestamp > ? OR (timestamp = ? AND id > ?))" + order,
+                (rs, rowNum) -> toEntry(rs.getLong("id"),
+                        rs.getObject("timestamp"), rs.getString("type"), rs.getString("notes")),
+                userId, after.rawTimestamp(), after.rawTimestamp(), after.id());
+    }
+
+    private static EntryRow toEntry(long id, Object rawTimestamp, String type, String notes) {
+        return new EntryRow(id, rawTimestamp, LegacyTimestamps.toLocalDateTime(rawTimestamp), type, notes);
+    }
+
+    private boolean legacyTablePresent() {
+        Integer tables = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?", Integer.class, TABLE);
+        return tables != null && tables > 0;
+    }
+
+    private MigrationCheckpoint loadCheckpoint() {
+        return checkpointRepository.findById(NAME).orElseGet(() -> {
+            MigrationCheckpoint created = new MigrationCheckpoint();
+            created.setName(NAME);
+            return created;
+        });
+    }
+
+    private record UserRow(long id, String username, ZoneId zone) {
+    }
+
+    private record EntryRow(long id, Object rawTimestamp, LocalDateTime timestamp, String type, String notes) {
+    }
+
+    /**
+     * State of one user's ordered pass: the pending clock-in and the sessions not yet inserted.
+     */
+    private final class SessionPairing {
+        private final UserRow user;
+        private final long version;
+        private final List<Object[]> batch = new ArrayList<>();
+        private EntryRow pendingClockIn;
+        private long entries;
+        private long created;
+        private long skipped;
+
+        SessionPairing(UserRow user, long version) {
+            this.user = user;
+            this.version = version;
+        }
+
+        void accept(EntryRow entry) {
+            entries++;
+            if (entry.timestamp() == null) {
+                skipped++;
+                return;
+            }
+            if ("CLOCK_IN".equals(entry.type())) {
+                if (pendingClockIn != null) {
+                    emit(pendingClockIn, null);
+                }
+                pendingClockIn = entry;
+            } else if ("CLOCK_OUT".equals(entry.type()) && pendingClockIn != null) {
+                emit(pendingClockIn, entry);
+                pendingClockIn = null;
+            } else {
+                skipped++;
+            }
+        }
+
+        void finish() {
+            if (pendingClockIn != null) {
+                emit(pendingClockIn, null);
+                pendingClockIn = null;
+            }
+            flush();
+        }
+
+        private void emit(EntryRow clockIn, EntryRow clockOut) {
+            long start = clockIn.timestamp().atZone(user.zone()).toEpochSecond();
+            Long end = clockOut != null ? clockOut.timestamp().atZone(user.zone()).toEpochSecond() : null;
+            String notes = clockIn.notes() != null && !clockIn.notes().isBlank() ? clockIn.notes()
+                    : clockOut != null ? clockOut.notes() : null;
+
+            if (alreadyMigrated(start)) {
+                skipped += clockOut != null ? 2 : 1;
+                return;
+            }
+            batch.add(new Object[]{user.id(), start, end, notes, version});
+            created++;
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        // Uses idx_work_session_user_start; covers sessions from an earlier, interrupted run
+        private boolean alreadyMigrated(long start) {
+            return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM work_session WHERE user_id = ? AND start_epoch = ?)",
+                    Boolean.class, user.id(), start));
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO work_session (user_id, start_epoch, end_epoch, notes, change_version, version) " +
+                            "VALUES (?, ?, ?, ?, ?, 0)",
+                    batch);
+            batch.clear();
+        }
+    }
+}
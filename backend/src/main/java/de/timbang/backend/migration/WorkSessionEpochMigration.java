@@ -0,0 +1,81 @@
+package de.timbang.backend.migration;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Copies the legacy {@code start_time}/{@code end_time} columns of {@code work_session}
+ * into the epoch-second columns {@code start_epoch}/{@code end_epoch}.
+ * <p>
+ * The old values are wall-clock times without a zone. Depending on the JDBC driver
+ * settings they were written either as text or as epoch milliseconds of the server's
+ * default zone, both forms are read back as a local date-time and then placed in the
+ * owning user's zone. Only rows without a {@code start_epoch} are touched, so running
+ * it again is a no-op. Runs after Hibernate's schema update and before the web server
+ * accepts requests.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class WorkSessionEpochMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkSessionEpochMigration.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WorkSessionEpochMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        List<String> columns = jdbcTemplate.queryForList(
+                "SELECT name FROM pragma_table_info('work_session')", String.class);
+        if (!columns.contains("start_time")) {
+            return;
+        }
+
+        long migrated = 0;
+        List<Object[]> batch;
+        do {
+            batch = jdbcTemplate.query(
+                    "SELECT s.id, s.start_time, s.end_time, u.zone_id FROM work_session s " +
+                            "JOIN user u ON u.id = s.user_id " +
+                            "WHERE s.start_epoch IS NULL AND s.start_time IS NOT NULL LIMIT " + BATCH_SIZE,
+                    (rs, rowNum) -> toEpochRow(rs));
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE work_session SET start_epoch = ?, end_epoch = ? WHERE id = ?", batch);
+                migrated += batch.size();
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        if (migrated > 0) {
+            log.info("Converted {} work sessions to epoch-second timestamps", migrated);
+        }
+    }
+
+    private Object[] toEpochRow(ResultSet rs) throws SQLException {
+        String zoneId = rs.getString("zone_id");
+        ZoneId zone = zoneId != null ? ZoneId.of(zoneId) : ZoneId.systemDefault();
+        return new Object[]{
+                toEpochSecond(rs.getObject("start_time"), zone),
+                toEpochSecond(rs.getObject("end_time"), zone),
+                rs.getLong("id")
+        };
+    }
+
+    private static Long toEpochSecond(Object legacyValue, ZoneId zone) {
+        LocalDateTime wallClock = LegacyTimestamps.toLocalDateTime(legacyValue);
+        return wallClock != null ? wallClock.atZone(zone).toEpochSecond() : null;
+    }
+}
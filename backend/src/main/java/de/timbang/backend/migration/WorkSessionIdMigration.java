@@ -0,0 +1,116 @@
+package de.timbang.backend.migration;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds {@code work_session} with {@code id INTEGER PRIMARY KEY AUTOINCREMENT}.
+ * <p>
+ * Hibernate creates the id as a plain rowid alias, for which SQLite hands out
+ * {@code max(id) + 1}: deleting the newest session and clocking in again reused its
+ * id, so {@code /changes} reported the id as both changed and deleted and the audit
+ * trail mixed the two sessions. With AUTOINCREMENT ids are never handed out twice.
+ * The sequence starts above every id still referenced by tombstones, audit rows and
+ * archive partitions. Columns, rows, indexes and triggers are carried over in one
+ * transaction; a table that already has AUTOINCREMENT is left alone. Runs after
+ * Hibernate's schema update and before the web server accepts requests.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class WorkSessionIdMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkSessionIdMigration.class);
+    private static final String TABLE = "work_session";
+    private static final String REBUILT_TABLE = "work_session_rebuilt";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public WorkSessionIdMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        String sql = jdbcTemplate.queryForObject(
+                "SELECT sql FROM sqlite_master WHERE type = 'table' AND name = ?", String.class, TABLE);
+        if (sql.toUpperCase().contains("AUTOINCREMENT")) {
+            return;
+        }
+        long rows = transactionTemplate.execute(status -> rebuild());
+        log.info("Rebuilt {} with {} sessions so session ids are never reused", TABLE, rows);
+    }
+
+    private long rebuild() {
+        List<String> columns = new ArrayList<>();
+        List<String> definitions = new ArrayList<>();
+        for (Map<String, Object> column : jdbcTemplate.queryForList("SELECT * FROM pragma_table_info('" + TABLE + "')")) {
+            String name = (String) column.get("name");
+            columns.add(name);
+            if (name.equals("id")) {
+                definitions.add("id INTEGER PRIMARY KEY AUTOINCREMENT");
+                continue;
+            }
+            StringBuilder definition = new StringBuilder(name).append(' ').append(column.get("type"));
+            if (((Number) column.get("notnull")).intValue() != 0) {
+                definition.append(" NOT NULL");
+            }
+            if (column.get("dflt_value") != null) {
+                definition.append(" DEFAULT ").append(column.get("dflt_value"));
+            }
+            definitions.add(definition.toString());
+        }
+        // Dropped together with the table, recreated on the rebuilt one
+        List<String> dependents = jdbcTemplate.queryForList(
+                "SELECT sql FROM sqlite_master WHERE tbl_name = ? AND type IN ('index', 'trigger') AND sql IS NOT NULL",
+                String.class, TABLE);
+        long nextAbove = highestReferencedId();
+
+        String columnList = String.join(", ", columns);
+        jdbcTemplate.execute("CREATE TABLE " + REBUILT_TABLE + " (" + String.join(", ", definitions) + ")");
+        int rows = jdbcTemplate.update("INSERT INTO " + REBUILT_TABLE + " (" + columnList + ") " +
+                "SELECT " + columnList + " FROM " + TABLE);
+        jdbcTemplate.execute("DROP TABLE " + TABLE);
+        jdbcTemplate.execute("ALTER TABLE " + REBUILT_TABLE + " RENAME TO " + TABLE);
+        dependents.forEach(jdbcTemplate::execute);
+
+        jdbcTemplate.update("DELETE FROM sqlite_sequence WHERE name = ?", TABLE);
+        jdbcTemplate.update("INSERT INTO sqlite_sequence (name, seq) VALUES (?, ?)", TABLE, nextAbove);
+        return rows;
+    }
+
+    private long highestReferencedId() {
+        List<String> queries = new ArrayList<>(List.of("SELECT MAX(id) FROM " + TABLE));
+        List<String> tables = jdbcTemplate.queryForList("SELECT name FROM sqlite_master WHERE type = 'table'", String.class);
+        if (tables.contains("work_session_tombstone")) {
+            queries.add("SELECT MAX(session_id) FROM work_session_tombstone");
+        }
+        if (tables.contains("session_audit")) {
+            queries.add("SELECT MAX(session_id) FROM session_audit");
+        }
+        for (String table : tables) {
+            if (table.startsWith("work_session_archive_")) {
+                queries.add("SELECT MAX(id) FROM " + table);
+            }
+        }
+
+        long highest = 0;
+        for (String query : queries) {
+            Long max = jdbcTemplate.queryForObject(query, Long.class);
+            if (max != null) {
+                highest = Math.max(highest, max);
+            }
+        }
+        return highest;
+    }
+}
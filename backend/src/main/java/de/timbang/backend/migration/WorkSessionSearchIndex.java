@@ -0,0 +1,75 @@
+package de.timbang.backend.migration;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates the FTS5 index over {@code work_session.notes} and the triggers that keep
+ * it in sync with inserts, updates and deletes.
+ * <p>
+ * The index is contentless (notes are not stored twice) and has a second column
+ * {@code owner} holding {@code u<user id>}, so a search is the intersection of the
+ * owner's and the terms' posting lists instead of a scan over everyone's matches.
+ * {@code -} and {@code _} are token characters, which keeps project codes such as
+ * {@code PROJ-42} one token. Existing sessions are indexed once when the table is
+ * first created, in the same transaction as the table and triggers. Runs after
+ * Hibernate's schema update.
+ */
+@Component
+@DependsOn({"entityManagerFactory", "workSessionEpochMigration", "workSessionIdMigration"})
+public class WorkSessionSearchIndex {
+
+    public static final String TABLE = "work_session_fts";
+
+    private static final Logger log = LoggerFactory.getLogger(WorkSessionSearchIndex.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public WorkSessionSearchIndex(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate.executeWithoutResult(status -> createIndex());
+    }
+
+    private void createIndex() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = ?", Integer.class, TABLE);
+        if (existing != null && existing > 0) {
+            return;
+        }
+
+        jdbcTemplate.execute("CREATE VIRTUAL TABLE " + TABLE + " USING fts5(" +
+                "notes, owner, content = '', tokenize = \"unicode61 tokenchars '-_'\")");
+
+        jdbcTemplate.execute("CREATE TRIGGER IF NOT EXISTS work_session_fts_insert AFTER INSERT ON work_session " +
+                "WHEN new.notes IS NOT NULL BEGIN " +
+                "INSERT INTO " + TABLE + " (rowid, notes, owner) VALUES (new.id, new.notes, 'u' || new.user_id); " +
+                "END");
+        jdbcTemplate.execute("CREATE TRIGGER IF NOT EXISTS work_session_fts_delete AFTER DELETE ON work_session " +
+                "WHEN old.notes IS NOT NULL BEGIN " +
+                "INSERT INTO " + TABLE + " (" + TABLE + ", rowid, notes, owner) VALUES ('delete', old.id, old.notes, 'u' || old.user_id); " +
+                "END");
+        jdbcTemplate.execute("CREATE TRIGGER IF NOT EXISTS work_session_fts_update AFTER UPDATE OF notes, user_id ON work_session BEGIN " +
+                "INSERT INTO " + TABLE + " (" + TABLE + ", rowid, notes, owner) " +
+                "SELECT 'delete', old.id, old.notes, 'u' || old.user_id WHERE old.notes IS NOT NULL; " +
+                "INSERT INTO " + TABLE + " (rowid, notes, owner) " +
+                "SELECT new.id, new.notes, 'u' || new.user_id WHERE new.notes IS NOT NULL; " +
+                "END");
+
+        jdbcTemplate.update("INSERT INTO " + TABLE + " (rowid, notes, owner) " +
+                "SELECT id, notes, 'u' || user_id FROM work_session WHERE notes IS NOT NULL");
+        // The update count would include rows written to the FTS shadow tables
+        Long indexed = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLE, Long.class);
+        log.info("Created notes search index for {} work sessions", indexed);
+    }
+}
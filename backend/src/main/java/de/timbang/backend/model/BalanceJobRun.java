@@ -0,0 +1,56 @@
+package de.timbang.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Progress of the month-end balance job for one month. {@code lastUserId} is the
+ * checkpoint a failed or interrupted run resumes after; {@code changeVersion} is the
+ * change version the balances include, later changes are recomputed per user.
+ */
+@Entity
+@Data
+@Table(name = "balance_job_run", uniqueConstraints = @UniqueConstraint(
+        name = "uk_balance_job_run_month", columnNames = {"report_year", "report_month"}))
+public class BalanceJobRun {
+
+    public enum Status {
+        RUNNING,
+        FAILED,
+        COMPLETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "report_year", nullable = false)
+    private int reportYear;
+
+    @Column(name = "report_month", nullable = false)
+    private int reportMonth;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Column(name = "last_user_id", nullable = false)
+    private long lastUserId;
+
+    @Column(name = "processed_users", nullable = false)
+    private long processedUsers;
+
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "started_epoch")
+    private Instant startedAt;
+
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "finished_epoch")
+    private Instant finishedAt;
+
+    private String error;
+}
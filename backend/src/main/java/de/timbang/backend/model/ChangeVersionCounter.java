@@ -0,0 +1,19 @@
+package de.timbang.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * The single row holding the last assigned change version, see {@code ChangeVersionService}.
+ */
+@Entity
+@Data
+@Table(name = "change_version_counter")
+public class ChangeVersionCounter {
+
+    @Id
+    private int id;
+
+    @Column(nullable = false)
+    private long version;
+}
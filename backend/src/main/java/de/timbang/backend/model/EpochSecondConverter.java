@@ -0,0 +1,24 @@
+package de.timbang.backend.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.Instant;
+
+/**
+ * Persists an {@link Instant} as whole seconds since the epoch, so SQLite stores
+ * an INTEGER and range predicates and duration sums stay integer arithmetic.
+ */
+@Converter
+public class EpochSecondConverter implements AttributeConverter<Instant, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Instant attribute) {
+        return attribute != null ? attribute.getEpochSecond() : null;
+    }
+
+    @Override
+    public Instant convertToEntityAttribute(Long dbData) {
+        return dbData != null ? Instant.ofEpochSecond(dbData) : null;
+    }
+}
@@ -3,12 +3,16 @@ package de.timbang.backend.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.Date;
 
 @Entity
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Holiday {
 
     @Id
@@ -0,0 +1,49 @@
+package de.timbang.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Progress of a resumable data migration, one row per migration name.
+ */
+@Entity
+@Data
+@Table(name = "migration_checkpoint")
+public class MigrationCheckpoint {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        FAILED,
+        COMPLETED
+    }
+
+    @Id
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.PENDING;
+
+    @Column(name = "last_user_id", nullable = false)
+    private long lastUserId;
+
+    @Column(name = "processed_users", nullable = false)
+    private long processedUsers;
+
+    @Column(name = "processed_entries", nullable = false)
+    private long processedEntries;
+
+    @Column(name = "created_sessions", nullable = false)
+    private long createdSessions;
+
+    @Column(name = "skipped_entries", nullable = false)
+    private long skippedEntries;
+
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "updated_epoch")
+    private Instant updatedAt;
+
+    private String error;
+}
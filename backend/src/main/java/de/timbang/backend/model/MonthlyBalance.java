@@ -0,0 +1,44 @@
+package de.timbang.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * One user's worked versus expected hours for a calendar month in their zone,
+ * written by the month-end balance job.
+ */
+@Entity
+@Data
+@Table(name = "monthly_balance", uniqueConstraints = @UniqueConstraint(
+        name = "uk_monthly_balance_user_month", columnNames = {"user_id", "report_year", "report_month"}))
+public class MonthlyBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @Column(name = "report_year", nullable = false)
+    private int reportYear;
+
+    @Column(name = "report_month", nullable = false)
+    private int reportMonth;
+
+    @Column(name = "worked_seconds", nullable = false)
+    private long workedSeconds;
+
+    @Column(name = "expected_hours", nullable = false)
+    private int expectedHours;
+
+    @Column(name = "session_count", nullable = false)
+    private int sessionCount;
+
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "generated_epoch", nullable = false)
+    private Instant generatedAt;
+}
@@ -0,0 +1,26 @@
+package de.timbang.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A JWT id that must no longer be accepted. Kept until the token would have expired anyway.
+ */
+@Entity
+@Data
+@Table(indexes = @Index(name = "idx_revoked_token_expires", columnList = "expires_epoch"))
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String tokenId;
+
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "expires_epoch", nullable = false)
+    private Instant expiresAt;
+}
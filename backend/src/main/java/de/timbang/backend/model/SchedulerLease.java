@@ -0,0 +1,29 @@
+package de.timbang.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Lease on a scheduled job shared by all instances, see {@code SchedulerLeaseService}.
+ * {@code generation} counts the job's completed runs, so instances that did not run
+ * it can tell that its data changed.
+ */
+@Entity
+@Data
+@Table(name = "scheduler_lease")
+public class SchedulerLease {
+
+    @Id
+    private String name;
+
+    private String owner;
+
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "expires_epoch", nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private long generation;
+}
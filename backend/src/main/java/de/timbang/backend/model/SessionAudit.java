@@ -0,0 +1,69 @@
+package de.timbang.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Before and after image of one edit, delete or auto-close of a {@link WorkSession},
+ * written in batches by {@code SessionAuditLog}. Rows are never updated and outlive
+ * the session.
+ */
+@Entity
+@Data
+@Table(name = "session_audit",
+        indexes = @Index(name = "idx_session_audit_session_change", columnList = "session_id, change_version"))
+public class SessionAudit {
+
+    public enum Action {
+        EDIT,
+        DELETE,
+        AUTO_CLOSE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Action action;
+
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    private String actor;
+
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "recorded_epoch", nullable = false)
+    private Instant recordedAt;
+
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "before_start_epoch")
+    private Instant beforeStart;
+
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "before_end_epoch")
+    private Instant beforeEnd;
+
+    @Column(name = "before_notes")
+    private String beforeNotes;
+
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "after_start_epoch")
+    private Instant afterStart;
+
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "after_end_epoch")
+    private Instant afterEnd;
+
+    @Column(name = "after_notes")
+    private String afterNotes;
+}
@@ -6,6 +6,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import lombok.Data;
 
+import java.time.ZoneId;
+
 @Entity
 @Data
 public class User {
@@ -16,4 +18,16 @@ public class User {
 
     private String username;
     private String password;
+
+    // IANA zone (e.g. "Europe/Berlin") the user's wall-clock times are entered and shown in
+    private String zoneId;
+
+    public ZoneId zone() {
+        return zoneOf(zoneId);
+    }
+
+    // Zone of a stored zone_id, for code that reads users without loading the entity
+    public static ZoneId zoneOf(String zoneId) {
+        return zoneId != null ? ZoneId.of(zoneId) : ZoneId.systemDefault();
+    }
 }
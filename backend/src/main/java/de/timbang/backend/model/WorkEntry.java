@@ -1,36 +0,0 @@
-package de.timbang.backend.model;
-
-import java.time.LocalDateTime;
-
-import jakarta.persistence.Entity;
-import jakarta.persistence.EnumType;
-import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
-import jakarta.persistence.ManyToOne;
-import lombok.Data;
-
-@Entity
-@Data
-public class WorkEntry {
-    
-    public enum EntryType {
-        CLOCK_IN,
-        CLOCK_OUT
-    }
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @ManyToOne
-    private User user;
-
-    private LocalDateTime timestamp;
-    
-    @Enumerated(EnumType.STRING)
-    private EntryType type;
-    
-    private String notes;
-} 
\ No newline at end of file
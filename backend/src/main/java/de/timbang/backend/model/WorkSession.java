@@ -3,10 +3,16 @@ package de.timbang.backend.model;
 import jakarta.persistence.*;
 import lombok.Data;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 
 @Entity
 @Data
+@Table(indexes = {
+        @Index(name = "idx_work_session_user_start", columnList = "user_id, start_epoch, end_epoch"),
+        @Index(name = "idx_work_session_user_change", columnList = "user_id, change_version"),
+        // Users whose sessions changed since a balance was written, see MonthlyBalanceService
+        @Index(name = "idx_work_session_change", columnList = "change_version")
+})
 public class WorkSession {
 
     @Id
@@ -16,9 +22,21 @@ public class WorkSession {
     @ManyToOne
     private User user;
 
-    private LocalDateTime startTime;
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "start_epoch")
+    private Instant startTime;
 
     private String notes;
 
-    private LocalDateTime endTime;
-}
\ No newline at end of file
+    @Convert(converter = EpochSecondConverter.class)
+    @Column(name = "end_epoch")
+    private Instant endTime;
+
+    // Global, monotonically increasing stamp of the last modification (see ChangeVersionService)
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "INTEGER DEFAULT 0")
+    private long version;
+}
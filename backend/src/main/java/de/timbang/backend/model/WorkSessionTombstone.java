@@ -0,0 +1,29 @@
+package de.timbang.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Left behind when a {@link WorkSession} is deleted so that delta sync clients learn about the removal.
+ */
+@Entity
+@Data
+@Table(indexes = @Index(name = "idx_work_session_tombstone_user_change", columnList = "user_id, change_version"))
+public class WorkSessionTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    private User user;
+
+    private Long sessionId;
+
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    private LocalDateTime deletedAt;
+}
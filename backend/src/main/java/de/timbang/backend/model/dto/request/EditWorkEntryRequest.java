@@ -5,5 +5,6 @@ import java.time.LocalDateTime;
 public record EditWorkEntryRequest(
     LocalDateTime newStartTime,
     LocalDateTime newEndTime,
-    String notes
+    String notes,
+    Long expectedVersion
 ) {} 
\ No newline at end of file
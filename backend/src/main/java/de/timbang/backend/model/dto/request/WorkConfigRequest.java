@@ -7,5 +7,6 @@ public record WorkConfigRequest(
     Integer defaultLunchBreakMinutes,
     String workDays,
     String state,
-    Boolean showHolidays
+    Boolean showHolidays,
+    String zoneId
 ) {} 
\ No newline at end of file
@@ -0,0 +1,11 @@
+package de.timbang.backend.model.dto.response;
+
+import java.time.Instant;
+
+public record BackupResponse(
+        String name,
+        long sizeBytes,
+        Instant createdAt,
+        Long durationMillis
+) {
+}
@@ -0,0 +1,39 @@
+package de.timbang.backend.model.dto.response;
+
+import de.timbang.backend.model.WorkSession;
+
+import java.util.List;
+
+/**
+ * Column-oriented variant of a {@link WorkSessionResponse} list. The username is
+ * sent once and times travel as epoch seconds, a duration of -1 marks a session
+ * that has not been clocked out yet.
+ */
+public record CompactWorkSessionsResponse(
+        String username,
+        String zoneId,
+        long[] ids,
+        long[] startEpochSeconds,
+        long[] durationSeconds,
+        String[] notes
+) {
+    public static final String MEDIA_TYPE = "application/vnd.worktracker.compact+json";
+
+    public static CompactWorkSessionsResponse fromEntities(String username, String zoneId, List<WorkSession> sessions) {
+        int size = sessions.size();
+        long[] ids = new long[size];
+        long[] starts = new long[size];
+        long[] durations = new long[size];
+        String[] notes = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            WorkSession session = sessions.get(i);
+            long start = session.getStartTime().getEpochSecond();
+            ids[i] = session.getId();
+            starts[i] = start;
+            durations[i] = session.getEndTime() != null ? session.getEndTime().getEpochSecond() - start : -1;
+            notes[i] = session.getNotes();
+        }
+        return new CompactWorkSessionsResponse(username, zoneId, ids, starts, durations, notes);
+    }
+}
@@ -0,0 +1,12 @@
+package de.timbang.backend.model.dto.response;
+
+import java.time.LocalDate;
+
+public record ExpectedHoursResponse(
+        LocalDate start,
+        LocalDate end,
+        int workingDays,
+        double expectedHours,
+        double workedHours
+) {
+}
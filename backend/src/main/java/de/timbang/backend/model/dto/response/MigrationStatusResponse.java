@@ -0,0 +1,15 @@
+package de.timbang.backend.model.dto.response;
+
+import de.timbang.backend.model.MigrationCheckpoint;
+
+public record MigrationStatusResponse(
+        MigrationCheckpoint.Status status,
+        boolean legacyTablePresent,
+        long totalUsers,
+        long processedUsers,
+        long processedEntries,
+        long createdSessions,
+        long skippedEntries,
+        String error
+) {
+}
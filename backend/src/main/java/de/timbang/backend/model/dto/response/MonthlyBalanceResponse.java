@@ -0,0 +1,24 @@
+package de.timbang.backend.model.dto.response;
+
+import de.timbang.backend.model.MonthlyBalance;
+
+import java.time.YearMonth;
+
+public record MonthlyBalanceResponse(
+        YearMonth month,
+        double workedHours,
+        int expectedHours,
+        double balanceHours,
+        int sessions
+) {
+    public static MonthlyBalanceResponse fromEntity(MonthlyBalance balance) {
+        double workedHours = balance.getWorkedSeconds() / 3600.0;
+        return new MonthlyBalanceResponse(
+                YearMonth.of(balance.getReportYear(), balance.getReportMonth()),
+                workedHours,
+                balance.getExpectedHours(),
+                workedHours - balance.getExpectedHours(),
+                balance.getSessionCount()
+        );
+    }
+}
@@ -0,0 +1,37 @@
+package de.timbang.backend.model.dto.response;
+
+import de.timbang.backend.model.SessionAudit;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+public record SessionAuditResponse(
+        Long sessionId,
+        SessionAudit.Action action,
+        Long changeVersion,
+        String actor,
+        Instant recordedAt,
+        Image before,
+        Image after
+) {
+    public record Image(LocalDateTime startTime, LocalDateTime endTime, String notes) {
+    }
+
+    public static SessionAuditResponse fromEntity(SessionAudit audit, ZoneId zone) {
+        return new SessionAuditResponse(
+                audit.getSessionId(),
+                audit.getAction(),
+                audit.getChangeVersion(),
+                audit.getActor(),
+                audit.getRecordedAt(),
+                new Image(toLocal(audit.getBeforeStart(), zone), toLocal(audit.getBeforeEnd(), zone), audit.getBeforeNotes()),
+                audit.getAction() == SessionAudit.Action.DELETE ? null
+                        : new Image(toLocal(audit.getAfterStart(), zone), toLocal(audit.getAfterEnd(), zone), audit.getAfterNotes())
+        );
+    }
+
+    private static LocalDateTime toLocal(Instant instant, ZoneId zone) {
+        return instant != null ? LocalDateTime.ofInstant(instant, zone) : null;
+    }
+}
@@ -0,0 +1,10 @@
+package de.timbang.backend.model.dto.response;
+
+import java.util.List;
+
+public record SessionChangesResponse(
+        List<WorkSessionResponse> changed,
+        List<Long> deleted,
+        long token
+) {
+}
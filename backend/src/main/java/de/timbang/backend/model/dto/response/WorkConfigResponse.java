@@ -12,7 +12,8 @@ public record WorkConfigResponse(
         Integer defaultLunchBreakMinutes,
         String workDays,
         State state,
-        Boolean showHolidays
+        Boolean showHolidays,
+        String zoneId
 ) {
     public static WorkConfigResponse fromEntity(WorkConfig config) {
         return new WorkConfigResponse(
@@ -24,7 +25,8 @@ public record WorkConfigResponse(
                 config.getDefaultLunchBreakMinutes(),
                 config.getWorkDays(),
                 config.getState(),
-                config.isShowHoliday()
+                config.isShowHoliday(),
+                config.getUser().zone().getId()
         );
     }
 } 
\ No newline at end of file
@@ -2,22 +2,31 @@ package de.timbang.backend.model.dto.response;
 
 import de.timbang.backend.model.WorkSession;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 public record WorkSessionResponse(
     Long id,
     String username,
     LocalDateTime startTime,
     LocalDateTime endTime,
-    String notes
+    String notes,
+    long version
 ) {
     public static WorkSessionResponse fromEntity(WorkSession entry) {
+        ZoneId zone = entry.getUser().zone();
         return new WorkSessionResponse(
             entry.getId(),
             entry.getUser().getUsername(),
-            entry.getStartTime(),
-            entry.getEndTime(),
-            entry.getNotes()
+            toLocal(entry.getStartTime(), zone),
+            toLocal(entry.getEndTime(), zone),
+            entry.getNotes(),
+            entry.getVersion()
         );
     }
-} 
\ No newline at end of file
+
+    private static LocalDateTime toLocal(Instant instant, ZoneId zone) {
+        return instant != null ? LocalDateTime.ofInstant(instant, zone) : null;
+    }
+}
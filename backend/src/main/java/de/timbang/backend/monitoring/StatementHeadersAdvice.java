@@ -0,0 +1,55 @@
+package de.timbang.backend.monitoring;
+
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the request's statement count ({@code X-DB-Statements}) and database time
+ * ({@code Server-Timing: db;dur=...}) to response bodies written by controllers and
+ * error handlers. Headers have to be set before the body is written, so statements
+ * run during serialization and streamed downloads only show up in the metrics.
+ */
+@ControllerAdvice
+public class StatementHeadersAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENTS_HEADER = "X-DB-Statements";
+
+    private final boolean enabled;
+
+    public StatementHeadersAdvice(@Value("${app.sql-stats.headers:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response
+    ) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(StatementMetricsFilter.RECORDING_ATTRIBUTE)
+                        instanceof StatementStats.Recording recording) {
+            response.getHeaders().set(STATEMENTS_HEADER, Integer.toString(recording.getStatements()));
+            response.getHeaders().add("Server-Timing",
+                    String.format(Locale.ROOT, "db;dur=%.2f", recording.getMillis()));
+        }
+        return body;
+    }
+}
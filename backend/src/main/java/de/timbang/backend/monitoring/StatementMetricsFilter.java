@@ -0,0 +1,64 @@
+package de.timbang.backend.monitoring;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records the statements and database time of each request, including the security
+ * filters, as {@code http.server.requests.db.statements} and
+ * {@code http.server.requests.db.time} tagged with method and route pattern.
+ * {@link StatementHeadersAdvice} copies the same numbers onto the response.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.sql-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementMetricsFilter extends OncePerRequestFilter {
+
+    static final String RECORDING_ATTRIBUTE = StatementMetricsFilter.class.getName() + ".recording";
+
+    private final MeterRegistry meterRegistry;
+
+    public StatementMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        StatementStats.Recording recording = StatementStats.start();
+        request.setAttribute(RECORDING_ATTRIBUTE, recording);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            recording.close();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("http.server.requests.db.statements")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .register(meterRegistry)
+                    .record(recording.getStatements());
+            Timer.builder("http.server.requests.db.time")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .register(meterRegistry)
+                    .record(recording.getNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package de.timbang.backend.monitoring;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Times every statement execution, adds it to the thread's {@link StatementStats} and
+ * logs executions slower than {@code app.sql-stats.slow-query-threshold}.
+ * <p>
+ * Slow queries are logged with the shape of their bound parameters (type, and length
+ * for strings) rather than the values, which are notes and usernames. A JDBC batch is
+ * one execution and counts as one statement.
+ */
+public class StatementMetricsListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementMetricsListener.class);
+    private static final String START_NANOS = StatementMetricsListener.class.getName() + ".start";
+
+    private final long slowQueryNanos;
+
+    public StatementMetricsListener(Duration slowQueryThreshold) {
+        this.slowQueryNanos = slowQueryThreshold.toNanos();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long nanos = start != null
+                ? System.nanoTime() - start
+                : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        StatementStats.record(nanos, sql);
+
+        if (nanos >= slowQueryNanos) {
+            for (QueryInfo query : queryInfoList) {
+                log.warn("Slow query ({} ms{}): {} parameters {}",
+                        nanos / 1_000_000,
+                        execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "",
+                        query.getQuery(),
+                        parameterShape(query));
+            }
+        }
+    }
+
+    /**
+     * The bound parameters of the first parameter set as types, e.g. {@code [Long, String(12), null]}.
+     */
+    static String parameterShape(QueryInfo query) {
+        List<List<ParameterSetOperation>> parameterSets = query.getParametersList();
+        if (parameterSets.isEmpty()) {
+            return "[]";
+        }
+        StringJoiner shape = new StringJoiner(", ", "[", "]");
+        for (ParameterSetOperation operation : parameterSets.get(0)) {
+            Object[] args = operation.getArgs();
+            Object value = args.length > 1 ? args[1] : null;
+            if (operation.getMethod().getName().equals("setNull") || value == null) {
+                shape.add("null");
+            } else if (value instanceof CharSequence text) {
+                shape.add("String(" + text.length() + ")");
+            } else {
+                shape.add(value.getClass().getSimpleName());
+            }
+        }
+        return parameterSets.size() > 1 ? shape + " x " + parameterSets.size() : shape.toString();
+    }
+}
@@ -0,0 +1,88 @@
+package de.timbang.backend.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statement counts and database time of the current thread, collected by
+ * {@link StatementMetricsListener} for every statement run through the proxied
+ * data source.
+ * <p>
+ * A {@link Recording} covers everything executed on its thread between
+ * {@link #start()} and {@link Recording#close()}; recordings nest, and each statement
+ * counts towards every open one. Work handed to other threads (such as the parallel
+ * timesheet export) is not attributed to the recording that started it.
+ */
+public final class StatementStats {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    private StatementStats() {
+    }
+
+    public static Recording start() {
+        return start(false);
+    }
+
+    /**
+     * Like {@link #start()}, additionally keeping the SQL of every statement, for
+     * tests that want to show what exceeded a budget.
+     */
+    public static Recording start(boolean captureSql) {
+        Recording recording = new Recording(CURRENT.get(), captureSql);
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    static void record(long nanos, String sql) {
+        for (Recording recording = CURRENT.get(); recording != null; recording = recording.parent) {
+            recording.statements++;
+            recording.nanos += nanos;
+            if (recording.sql != null) {
+                recording.sql.add(sql);
+            }
+        }
+    }
+
+    public static final class Recording implements AutoCloseable {
+
+        private final Recording parent;
+        private final List<String> sql;
+        private int statements;
+        private long nanos;
+
+        private Recording(Recording parent, boolean captureSql) {
+            this.parent = parent;
+            this.sql = captureSql ? new ArrayList<>() : null;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public double getMillis() {
+            return nanos / 1_000_000.0;
+        }
+
+        // Empty unless started with captureSql
+        public List<String> getSql() {
+            return sql != null ? List.copyOf(sql) : List.of();
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() != this) {
+                return;
+            }
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
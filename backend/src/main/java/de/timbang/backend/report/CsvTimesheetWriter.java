@@ -0,0 +1,73 @@
+package de.timbang.backend.report;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Locale;
+
+class CsvTimesheetWriter implements TimesheetWriter {
+
+    private final BufferedWriter writer;
+
+    CsvTimesheetWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void begin(String username, YearMonth month) throws IOException {
+        line("employee", username);
+        line("month", month.toString());
+        line("date", "type", "start", "end", "hours", "notes");
+    }
+
+    @Override
+    public void holiday(LocalDate date, String name) throws IOException {
+        line(date.toString(), "holiday", "", "", "", name);
+    }
+
+    @Override
+    public void session(LocalDate date, LocalTime start, LocalTime end, long durationSeconds, String notes) throws IOException {
+        line(date.toString(), "session", start.toString(), end != null ? end.toString() : "",
+                end != null ? TimesheetWriter.hours(durationSeconds) : "", notes);
+    }
+
+    @Override
+    public void finish(Summary summary) throws IOException {
+        line("worked hours", String.format(Locale.ROOT, "%.2f", summary.workedHours()));
+        line("expected hours", String.format(Locale.ROOT, "%.2f", summary.expectedHours()));
+        line("working days", Integer.toString(summary.workingDays()));
+        line("employee signature", "");
+        line("supervisor signature", "");
+        writer.flush();
+    }
+
+    private void line(String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(fields[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escape(String field) {
+        if (field == null || field.isEmpty()) {
+            return "";
+        }
+        // Keep spreadsheet apps from evaluating notes as formulas
+        char first = field.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            field = "'" + field;
+        }
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
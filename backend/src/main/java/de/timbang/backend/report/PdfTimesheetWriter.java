@@ -0,0 +1,110 @@
+package de.timbang.backend.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Locale;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+
+/**
+ * Writes the session table in slices: the table is marked incomplete and added to
+ * the document every {@link #ROWS_PER_FLUSH} rows, which renders those rows to the
+ * stream and frees them, so a long month never sits in memory as a whole.
+ */
+class PdfTimesheetWriter implements TimesheetWriter {
+
+    private static final int ROWS_PER_FLUSH = 50;
+    private static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9);
+    private static final Font CELL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 9);
+
+    private final OutputStream out;
+    private final Document document = new Document(PageSize.A4);
+    private PdfPTable table;
+    private int pendingRows;
+
+    PdfTimesheetWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void begin(String username, YearMonth month) throws IOException {
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
+            document.open();
+            document.add(new Paragraph("Timesheet " + month + " - " + username,
+                    FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14)));
+            document.add(new Paragraph(" "));
+
+            table = new PdfPTable(new float[]{2.2f, 1.6f, 1.2f, 1.2f, 1.2f, 4f});
+            table.setWidthPercentage(100);
+            table.setHeaderRows(1);
+            table.setComplete(false);
+            for (String header : new String[]{"Date", "Type", "Start", "End", "Hours", "Notes"}) {
+                table.addCell(new Phrase(header, HEADER_FONT));
+            }
+        } catch (DocumentException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void holiday(LocalDate date, String name) throws IOException {
+        addRow(date.toString(), "Holiday", "", "", "", name);
+    }
+
+    @Override
+    public void session(LocalDate date, LocalTime start, LocalTime end, long durationSeconds, String notes) throws IOException {
+        addRow(date.toString(), "Session", start.toString(), end != null ? end.toString() : "",
+                end != null ? TimesheetWriter.hours(durationSeconds) : "", notes);
+    }
+
+    @Override
+    public void finish(Summary summary) throws IOException {
+        try {
+            table.setComplete(true);
+            document.add(table);
+
+            document.add(new Paragraph(" "));
+            document.add(new Paragraph(String.format(Locale.ROOT, "Worked hours: %.2f", summary.workedHours()), CELL_FONT));
+            document.add(new Paragraph(String.format(Locale.ROOT, "Expected hours: %.2f (%d working days)",
+                    summary.expectedHours(), summary.workingDays()), CELL_FONT));
+            document.add(new Paragraph(" "));
+            document.add(new Paragraph(" "));
+            document.add(new Paragraph("______________________________          ______________________________", CELL_FONT));
+            Paragraph signatures = new Paragraph("Employee signature                                    Supervisor signature", CELL_FONT);
+            signatures.setAlignment(Element.ALIGN_LEFT);
+            document.add(signatures);
+        } catch (DocumentException e) {
+            throw new IOException(e);
+        } finally {
+            document.close();
+        }
+    }
+
+    private void addRow(String... cells) throws IOException {
+        for (String cell : cells) {
+            table.addCell(new Phrase(cell != null ? cell : "", CELL_FONT));
+        }
+        if (++pendingRows >= ROWS_PER_FLUSH) {
+            try {
+                document.add(table);
+            } catch (DocumentException e) {
+                throw new IOException(e);
+            }
+            pendingRows = 0;
+        }
+    }
+}
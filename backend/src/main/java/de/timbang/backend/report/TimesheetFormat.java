@@ -0,0 +1,33 @@
+package de.timbang.backend.report;
+
+import java.io.OutputStream;
+
+public enum TimesheetFormat {
+    CSV("text/csv", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx"),
+    PDF("application/pdf", "pdf");
+
+    private final String mediaType;
+    private final String extension;
+
+    TimesheetFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    TimesheetWriter open(OutputStream out) {
+        return switch (this) {
+            case CSV -> new CsvTimesheetWriter(out);
+            case XLSX -> new XlsxTimesheetWriter(out);
+            case PDF -> new PdfTimesheetWriter(out);
+        };
+    }
+}
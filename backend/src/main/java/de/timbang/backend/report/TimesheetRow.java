@@ -0,0 +1,14 @@
+package de.timbang.backend.report;
+
+import java.time.Instant;
+
+/**
+ * A closed or open session as read for a timesheet; a projection, so streaming
+ * thousands of them does not fill the persistence context.
+ */
+public record TimesheetRow(
+        Instant startTime,
+        Instant endTime,
+        String notes
+) {
+}
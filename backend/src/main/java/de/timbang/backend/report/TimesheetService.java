@@ -0,0 +1,301 @@
+package de.timbang.backend.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+
+import de.timbang.backend.exception.NotFoundException;
+import de.timbang.backend.model.Holiday;
+import de.timbang.backend.model.User;
+import de.timbang.backend.model.WorkConfig;
+import de.timbang.backend.model.WorkSession;
+import de.timbang.backend.repository.UserRepository;
+import de.timbang.backend.repository.WorkSessionRepository;
+import de.timbang.backend.service.HolidayService;
+import de.timbang.backend.service.SessionArchiveService;
+import de.timbang.backend.service.WorkCalendarService;
+import de.timbang.backend.service.WorkService;
+
+/**
+ * Generates monthly timesheets: the user's sessions streamed from the database in
+ * start order (archived ones included), merged with the holidays of their configured state, followed by the
+ * worked and expected hours and signature lines.
+ * <p>
+ * A single timesheet is written straight to the response. The all-users ZIP renders
+ * timesheets in parallel into temporary files and copies them into the archive in
+ * user id order as they complete; at most {@code 2 * parallelism} are pending at a
+ * time, so neither memory nor disk grows with the number of users.
+ */
+@Service
+public class TimesheetService {
+
+    private static final int USER_PAGE_SIZE = 200;
+
+    private final UserRepository userRepository;
+    private final WorkSessionRepository workSessionRepository;
+    private final WorkService workService;
+    private final WorkCalendarService workCalendarService;
+    private final HolidayService holidayService;
+    private final SessionArchiveService sessionArchive;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int parallelism;
+
+    public TimesheetService(
+            UserRepository userRepository,
+            WorkSessionRepository workSessionRepository,
+            WorkService workService,
+            WorkCalendarService workCalendarService,
+            HolidayService holidayService,
+            SessionArchiveService sessionArchive,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.timesheet.parallelism:4}") int parallelism) {
+        this.userRepository = userRepository;
+        this.workSessionRepository = workSessionRepository;
+        this.workService = workService;
+        this.workCalendarService = workCalendarService;
+        this.holidayService = holidayService;
+        this.sessionArchive = sessionArchive;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public void writeTimesheet(String username, YearMonth month, TimesheetFormat format, OutputStream out) throws IOException {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+        writeTimesheet(user, month, format, StreamUtils.nonClosing(out));
+    }
+
+    public void writeAllTimesheets(YearMonth month, TimesheetFormat format, OutputStream out) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Deque<PendingTimesheet> pending = new ArrayDeque<>();
+        try (ZipOutputStream zip = new ZipOutputStream(StreamUtils.nonClosing(out))) {
+            long lastUserId = 0;
+            List<User> users;
+            do {
+                users = userRepository.findByIdGreaterThanOrderById(lastUserId, PageRequest.of(0, USER_PAGE_SIZE));
+                for (User user : users) {
+                    pending.add(new PendingTimesheet(entryName(user, month, format),
+                            executor.submit(() -> renderToTempFile(user, month, format))));
+                    if (pending.size() >= 2 * parallelism) {
+                        copyNext(pending, zip);
+                    }
+                }
+                if (!users.isEmpty()) {
+                    lastUserId = users.get(users.size() - 1).getId();
+                }
+            } while (users.size() == USER_PAGE_SIZE);
+
+            while (!pending.isEmpty()) {
+                copyNext(pending, zip);
+            }
+            zip.finish();
+        } finally {
+            executor.shutdownNow();
+            discard(executor, pending);
+        }
+    }
+
+    private void writeTimesheet(User user, YearMonth month, TimesheetFormat format, OutputStream out) throws IOException {
+        ZoneId zone = user.zone();
+        WorkConfig config = workService.findConfigOrDefault(user);
+        LocalDate firstDay = month.atDay(1);
+        LocalDate lastDay = month.atEndOfMonth();
+        Instant from = firstDay.atStartOfDay(zone).toInstant();
+        Instant to = month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant();
+
+        Iterator<Holiday> holidays = holidaysIn(config, firstDay, lastDay).iterator();
+        long[] totals = new long[2];
+        try (TimesheetWriter writer = format.open(out)) {
+            writer.begin(user.getUsername(), month);
+            try {
+                // One read transaction, so a session the archive job moves meanwhile is seen exactly once
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<TimesheetRow> hotRows = workSessionRepository.streamTimesheetRows(user, from, to)) {
+                        Iterator<TimesheetRow> rows = mergeByStart(archivedRows(user, from, to), hotRows.iterator());
+                        Holiday nextHoliday = holidays.hasNext() ? holidays.next() : null;
+                        while (rows.hasNext()) {
+                            TimesheetRow row = rows.next();
+                            LocalDateTime start = LocalDateTime.ofInstant(row.startTime(), zone);
+                            while (nextHoliday != null && !nextHoliday.getDate().isAfter(start.toLocalDate())) {
+                                writer.holiday(nextHoliday.getDate(), nextHoliday.getName());
+                                nextHoliday = holidays.hasNext() ? holidays.next() : null;
+                            }
+
+                            long duration = 0;
+                            if (row.endTime() != null) {
+                                duration = row.endTime().getEpochSecond() - row.startTime().getEpochSecond();
+                                totals[0] += duration;
+                            }
+                            totals[1]++;
+                            writer.session(start.toLocalDate(), start.toLocalTime(),
+                                    row.endTime() != null ? LocalDateTime.ofInstant(row.endTime(), zone).toLocalTime() : null,
+                                    duration, row.notes());
+                        }
+                        while (nextHoliday != null) {
+                            writer.holiday(nextHoliday.getDate(), nextHoliday.getName());
+                            nextHoliday = holidays.hasNext() ? holidays.next() : null;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            int workingDays = workCalendarService.countWorkingDays(config, firstDay, lastDay);
+            writer.finish(new TimesheetWriter.Summary(totals[0], (int) totals[1], workingDays,
+                    workingDays * workCalendarService.getDailyHours(config)));
+        }
+    }
+
+    // Sessions older than the archive horizon live in the per-year archive tables (see SessionArchiveService)
+    private Iterator<TimesheetRow> archivedRows(User user, Instant from, Instant to) {
+        if (!sessionArchive.covers(from.getEpochSecond())) {
+            return Collections.emptyIterator();
+        }
+        return sessionArchive.find(user, from.getEpochSecond(), to.getEpochSecond() - 1).stream()
+                .sorted(Comparator.comparing(WorkSession::getStartTime))
+                .map(session -> new TimesheetRow(session.getStartTime(), session.getEndTime(), session.getNotes()))
+                .iterator();
+    }
+
+    // Both inputs are in start order, so is the result
+    private static Iterator<TimesheetRow> mergeByStart(Iterator<TimesheetRow> first, Iterator<TimesheetRow> second) {
+        return new Iterator<>() {
+            private TimesheetRow nextFirst = first.hasNext() ? first.next() : null;
+            private TimesheetRow nextSecond = second.hasNext() ? second.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextFirst != null || nextSecond != null;
+            }
+
+            @Override
+            public TimesheetRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                TimesheetRow row;
+                if (nextSecond == null || (nextFirst != null && !nextFirst.startTime().isAfter(nextSecond.startTime()))) {
+                    row = nextFirst;
+                    nextFirst = first.hasNext() ? first.next() : null;
+                } else {
+                    row = nextSecond;
+                    nextSecond = second.hasNext() ? second.next() : null;
+                }
+                return row;
+            }
+        };
+    }
+
+    private List<Holiday> holidaysIn(WorkConfig config, LocalDate firstDay, LocalDate lastDay) {
+        if (!config.isShowHoliday() || config.getState() == null) {
+            return List.of();
+        }
+        return holidayService.getHolidaysByState(config.getState()).stream()
+                .filter(holiday -> holiday.getDate() != null
+                        && !holiday.getDate().isBefore(firstDay) && !holiday.getDate().isAfter(lastDay))
+                .sorted(Comparator.comparing(Holiday::getDate))
+                .toList();
+    }
+
+    private Path renderToTempFile(User user, YearMonth month, TimesheetFormat format) throws IOException {
+        Path file = Files.createTempFile("timesheet-", "." + format.getExtension());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            writeTimesheet(user, month, format, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private static void copyNext(Deque<PendingTimesheet> pending, ZipOutputStream zip) throws IOException {
+        PendingTimesheet next = pending.poll();
+        Path file = await(next.file());
+        try {
+            zip.putNextEntry(new ZipEntry(next.entryName()));
+            Files.copy(file, zip);
+            zip.closeEntry();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static Path await(Future<Path> file) throws IOException {
+        try {
+            return file.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating timesheets", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // After a failure: wait for running renders to stop and remove what they wrote
+    private static void discard(ExecutorService executor, Deque<PendingTimesheet> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (PendingTimesheet timesheet : pending) {
+            if (timesheet.file().state() == Future.State.SUCCESS) {
+                try {
+                    Files.deleteIfExists(timesheet.file().resultNow());
+                } catch (IOException ignored) {
+                    // Left in the temp directory
+                }
+            }
+        }
+    }
+
+    private static String entryName(User user, YearMonth month, TimesheetFormat format) {
+        String safeName = user.getUsername().replaceAll("[^A-Za-z0-9._-]", "_");
+        return safeName + "-" + user.getId() + "-" + month + "." + format.getExtension();
+    }
+
+    private record PendingTimesheet(String entryName, Future<Path> file) {
+    }
+}
@@ -0,0 +1,43 @@
+package de.timbang.backend.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Locale;
+
+/**
+ * Receives one month's timesheet line by line, in date order, and writes it to the
+ * stream it was opened on as it goes. {@link #finish} completes the document but
+ * leaves the stream open; {@link #close} releases what the writer holds, also when
+ * the timesheet failed before {@code finish}.
+ */
+interface TimesheetWriter extends Closeable {
+
+    void begin(String username, YearMonth month) throws IOException;
+
+    void holiday(LocalDate date, String name) throws IOException;
+
+    /**
+     * @param end null while the session is still open
+     */
+    void session(LocalDate date, LocalTime start, LocalTime end, long durationSeconds, String notes) throws IOException;
+
+    void finish(Summary summary) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    record Summary(long workedSeconds, int sessions, int workingDays, double expectedHours) {
+
+        double workedHours() {
+            return workedSeconds / 3600.0;
+        }
+    }
+
+    static String hours(long seconds) {
+        return String.format(Locale.ROOT, "%.2f", seconds / 3600.0);
+    }
+}
@@ -0,0 +1,80 @@
+package de.timbang.backend.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Uses POI's streaming workbook: only the last {@link #ROWS_IN_MEMORY} rows are kept
+ * on the heap, older ones are flushed to a temporary file until the workbook is written.
+ * The temporary file is deleted on {@link #close}.
+ */
+class XlsxTimesheetWriter implements TimesheetWriter {
+
+    private static final int ROWS_IN_MEMORY = 100;
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook = new SXSSFWorkbook(ROWS_IN_MEMORY);
+    private SXSSFSheet sheet;
+    private int rowIndex;
+
+    XlsxTimesheetWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void begin(String username, YearMonth month) {
+        sheet = workbook.createSheet(month.toString());
+        row("Employee", username);
+        row("Month", month.toString());
+        rowIndex++;
+        row("Date", "Type", "Start", "End", "Hours", "Notes");
+    }
+
+    @Override
+    public void holiday(LocalDate date, String name) {
+        row(date.toString(), "Holiday", null, null, null, name);
+    }
+
+    @Override
+    public void session(LocalDate date, LocalTime start, LocalTime end, long durationSeconds, String notes) {
+        Row row = row(date.toString(), "Session", start.toString(), end != null ? end.toString() : null, null, notes);
+        if (end != null) {
+            row.createCell(4).setCellValue(durationSeconds / 3600.0);
+        }
+    }
+
+    @Override
+    public void finish(Summary summary) throws IOException {
+        rowIndex++;
+        row("Worked hours").createCell(1).setCellValue(summary.workedHours());
+        row("Expected hours").createCell(1).setCellValue(summary.expectedHours());
+        row("Working days").createCell(1).setCellValue(summary.workingDays());
+        rowIndex++;
+        row("Employee signature");
+        row("Supervisor signature");
+        workbook.write(out);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.close();
+    }
+
+    private Row row(String... values) {
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                row.createCell(i).setCellValue(values[i]);
+            }
+        }
+        return row;
+    }
+}
@@ -0,0 +1,14 @@
+package de.timbang.backend.repository;
+
+import de.timbang.backend.model.BalanceJobRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BalanceJobRunRepository extends JpaRepository<BalanceJobRun, Long> {
+
+    Optional<BalanceJobRun> findByReportYearAndReportMonth(int reportYear, int reportMonth);
+
+    List<BalanceJobRun> findByStatusOrderByReportYearAscReportMonthAsc(BalanceJobRun.Status status);
+}
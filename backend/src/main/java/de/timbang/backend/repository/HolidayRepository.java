@@ -2,11 +2,20 @@ package de.timbang.backend.repository;
 
 import de.timbang.backend.model.Holiday;
 import de.timbang.backend.model.State;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import java.util.List;
 
 public interface HolidayRepository extends CrudRepository<Holiday, Long> {
 
+    String QUERY_CACHE_REGION = "holiday-queries";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     List<Holiday> findHolidayByState(State state);
 }
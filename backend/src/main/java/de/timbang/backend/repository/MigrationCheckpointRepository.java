@@ -0,0 +1,7 @@
+package de.timbang.backend.repository;
+
+import de.timbang.backend.model.MigrationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MigrationCheckpointRepository extends JpaRepository<MigrationCheckpoint, String> {
+}
@@ -0,0 +1,12 @@
+package de.timbang.backend.repository;
+
+import de.timbang.backend.model.MonthlyBalance;
+import de.timbang.backend.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface MonthlyBalanceRepository extends JpaRepository<MonthlyBalance, Long> {
+
+    Optional<MonthlyBalance> findByUserAndReportYearAndReportMonth(User user, int reportYear, int reportMonth);
+}
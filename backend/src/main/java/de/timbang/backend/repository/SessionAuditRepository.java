@@ -0,0 +1,11 @@
+package de.timbang.backend.repository;
+
+import de.timbang.backend.model.SessionAudit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface SessionAuditRepository extends JpaRepository<SessionAudit, Long> {
+
+    List<SessionAudit> findBySessionIdAndUserIdOrderByChangeVersionAscIdAsc(Long sessionId, Long userId);
+}
@@ -1,11 +1,15 @@
 package de.timbang.backend.repository;
 
 import de.timbang.backend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
+    List<User> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
 }
@@ -2,11 +2,21 @@ package de.timbang.backend.repository;
 
 import java.util.Optional;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import de.timbang.backend.model.User;
 import de.timbang.backend.model.WorkConfig;
 
 public interface WorkConfigRepository extends JpaRepository<WorkConfig, Long> {
+
+    String QUERY_CACHE_REGION = "work-config-queries";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     Optional<WorkConfig> findByUser(User user);
-} 
\ No newline at end of file
+}
@@ -2,21 +2,60 @@ package de.timbang.backend.repository;
 
 import de.timbang.backend.model.User;
 import de.timbang.backend.model.WorkSession;
+import de.timbang.backend.report.TimesheetRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface WorkSessionRepository extends JpaRepository<WorkSession, Long> {
 
     List<WorkSession> findByUserOrderByStartTimeDesc(User user);
 
+    List<WorkSession> findByUserOrderByStartTimeDesc(User user, Pageable pageable);
+
     Optional<WorkSession> findByIdAndUser(Long id, User user);
 
-    List<WorkSession> findByUserAndStartTimeBetween(User user, LocalDateTime start, LocalDateTime end);
+    long countByUser(User user);
+
+    List<WorkSession> findByUserAndStartTimeBetween(User user, Instant start, Instant end);
 
-    List<WorkSession> findByUserAndStartTimeBetweenOrderById(User user, LocalDateTime start, LocalDateTime end);
+    List<WorkSession> findByUserAndStartTimeBetweenOrderById(User user, Instant start, Instant end);
 
     List<WorkSession> findByUserOrderById(User user);
+
+    List<WorkSession> findByUserAndChangeVersionGreaterThanOrderByChangeVersion(User user, Long changeVersion);
+
+    @Query("SELECT COALESCE(MAX(s.changeVersion), 0) FROM WorkSession s")
+    long findMaxChangeVersion();
+
+    // Answered from idx_work_session_user_start alone, start_epoch/end_epoch are plain integers
+    @Query(value = "SELECT COALESCE(SUM(end_epoch - start_epoch), 0) FROM work_session " +
+            "WHERE user_id = :userId AND start_epoch >= :fromEpoch AND start_epoch < :toEpoch AND end_epoch IS NOT NULL",
+            nativeQuery = true)
+    long sumClosedDurationSeconds(@Param("userId") Long userId, @Param("fromEpoch") long fromEpoch, @Param("toEpoch") long toEpoch);
+
+    // Must be consumed inside a transaction; rows are projections and not kept by the persistence context
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new de.timbang.backend.report.TimesheetRow(s.startTime, s.endTime, s.notes) FROM WorkSession s " +
+            "WHERE s.user = :user AND s.startTime >= :from AND s.startTime < :to ORDER BY s.startTime")
+    Stream<TimesheetRow> streamTimesheetRows(@Param("user") User user, @Param("from") Instant from, @Param("to") Instant to);
+
+    // The FTS match already restricts to the owner (see WorkSessionSearchIndex), the join only filters dates and sorts
+    @Query(value = "SELECT s.* FROM work_session s " +
+            "WHERE s.id IN (SELECT rowid FROM work_session_fts WHERE work_session_fts MATCH :match) " +
+            "AND s.user_id = :userId AND s.start_epoch >= :fromEpoch AND s.start_epoch < :toEpoch " +
+            "ORDER BY s.start_epoch DESC, s.id DESC LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<WorkSession> searchNotes(@Param("userId") Long userId, @Param("match") String match,
+                                  @Param("fromEpoch") long fromEpoch, @Param("toEpoch") long toEpoch,
+                                  @Param("limit") int limit, @Param("offset") long offset);
 }
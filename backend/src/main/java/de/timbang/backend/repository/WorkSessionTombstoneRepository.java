@@ -0,0 +1,16 @@
+package de.timbang.backend.repository;
+
+import de.timbang.backend.model.User;
+import de.timbang.backend.model.WorkSessionTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface WorkSessionTombstoneRepository extends JpaRepository<WorkSessionTombstone, Long> {
+
+    List<WorkSessionTombstone> findByUserAndChangeVersionGreaterThanOrderByChangeVersion(User user, Long changeVersion);
+
+    @Query("SELECT COALESCE(MAX(t.changeVersion), 0) FROM WorkSessionTombstone t")
+    long findMaxChangeVersion();
+}
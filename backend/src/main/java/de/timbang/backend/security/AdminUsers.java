@@ -0,0 +1,29 @@
+package de.timbang.backend.security;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Usernames allowed to run operations across all users, from {@code app.admin-usernames}
+ * (comma separated). The app has no roles, so this list is the only admin concept.
+ */
+@Component
+public class AdminUsers {
+
+    private final Set<String> usernames;
+
+    public AdminUsers(@Value("${app.admin-usernames:}") String adminUsernames) {
+        this.usernames = Arrays.stream(adminUsernames.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean isAdmin(String username) {
+        return usernames.contains(username);
+    }
+}
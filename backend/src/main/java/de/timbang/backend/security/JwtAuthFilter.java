@@ -10,7 +10,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import de.timbang.backend.service.AuthService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,12 +19,13 @@ import jakarta.servlet.http.HttpServletResponse;
 
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    public static final String EVENTS_PATH = "/api/v1/work/events";
+    public static final String EVENTS_TICKET_PARAMETER = "ticket";
+
     private final JwtService jwtService;
-    private final AuthService authService;
 
-    public JwtAuthFilter(JwtService jwtService, AuthService authService) {
+    public JwtAuthFilter(JwtService jwtService) {
         this.jwtService = jwtService;
-        this.authService = authService;
     }
 
     @Override
@@ -34,18 +36,38 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
+        final boolean eventsTicket;
+        final Claims claims;
+
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwt = authHeader.substring(7);
+            eventsTicket = false;
+        } else if (isEventStream(request) && request.getParameter(EVENTS_TICKET_PARAMETER) != null) {
+            jwt = request.getParameter(EVENTS_TICKET_PARAMETER);
+            eventsTicket = true;
+        } else {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        try {
+            claims = jwtService.parseClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Left unauthenticated: the rate limit after this filter counts it against the address
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        // A ticket opens the event stream only, and only a ticket is accepted in the URL
+        String scope = claims.get(JwtService.SCOPE_CLAIM, String.class);
+        if (eventsTicket ? !JwtService.EVENTS_SCOPE.equals(scope) : scope != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
+        final String username = claims.getSubject();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (authService.validateToken(jwt, username)) {
+            if (jwtService.isTokenValid(claims)) {
                 UserDetails userDetails = new User(username, "", new ArrayList<>());
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
@@ -58,4 +80,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-} 
\ No newline at end of file
+
+    private static boolean isEventStream(HttpServletRequest request) {
+        return request.getRequestURI().equals(request.getContextPath() + EVENTS_PATH);
+    }
+}
@@ -3,6 +3,7 @@ package de.timbang.backend.security;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 import javax.crypto.SecretKey;
@@ -17,6 +18,9 @@ import io.jsonwebtoken.security.Keys;
 @Service
 public class JwtService {
 
+    public static final String SCOPE_CLAIM = "scope";
+    public static final String EVENTS_SCOPE = "events";
+
     @Value("${jwt.secret:defaultSecretKey12345678901234567890}")
     private String secretKey;
 
@@ -26,6 +30,15 @@ public class JwtService {
     @Value("${jwt.refreshExpiration:2592000000}") // 24 hours in milliseconds
     private long jwtRefreshExpiration;
 
+    @Value("${jwt.eventsTicketExpiration:60000}") // 1 minute in milliseconds
+    private long eventsTicketExpiration;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    public JwtService(TokenRevocationService tokenRevocationService) {
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
     private SecretKey getSigningKey() {
         byte[] keyBytes = secretKey.getBytes();
         return Keys.hmacShaKeyFor(keyBytes);
@@ -41,9 +54,20 @@ public class JwtService {
         return createToken(claims, username, jwtRefreshExpiration);
     }
 
+    /**
+     * A short-lived token that only opens the event stream. EventSource cannot send an
+     * Authorization header, so it is passed in the URL, where it may end up in logs.
+     */
+    public String generateEventsTicket(String username) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(SCOPE_CLAIM, EVENTS_SCOPE);
+        return createToken(claims, username, eventsTicketExpiration);
+    }
+
     private String createToken(Map<String, Object> claims, String subject, long expiration) {
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
@@ -51,21 +75,38 @@ public class JwtService {
                 .compact();
     }
 
+    /**
+     * Verifies the signature and expiry of the token and returns its claims.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, expired or wrongly signed
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     public boolean isTokenValid(String token, String username) {
-        final String tokenUsername = extractUsername(token);
-        return (tokenUsername.equals(username)) && !isTokenExpired(token);
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(username) && isTokenValid(claims);
     }
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    // For claims from parseClaims; the revocation check is an in-memory lookup for almost every token
+    public boolean isTokenValid(Claims claims) {
+        return !claims.getExpiration().before(new Date())
+                && !tokenRevocationService.isRevoked(claims.getId());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Revokes the token until it expires.
+     *
+     * @return false if it had already been revoked
+     */
+    public boolean revokeToken(String token) {
+        final Claims claims = extractAllClaims(token);
+        return tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public String extractUsername(String token) {
+        return extractClaim(token, Claims::getSubject);
     }
 
     private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
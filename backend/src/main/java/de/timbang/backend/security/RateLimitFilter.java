@@ -0,0 +1,122 @@
+package de.timbang.backend.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Rejects requests that exceed their route group's token bucket with 429.
+ * <p>
+ * Installed twice around {@link JwtAuthFilter}: the {@link Phase#BEFORE_AUTHENTICATION}
+ * instance limits by client address, anonymous requests in the group's bucket and bearer
+ * requests to user keyed groups in a larger per-address bucket, so floods are turned away
+ * without a JWT parse or database access; the {@link Phase#AFTER_AUTHENTICATION} instance
+ * limits authenticated users by name and counts bearer requests whose token did not
+ * validate against their address.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public enum Phase {
+        BEFORE_AUTHENTICATION,
+        AFTER_AUTHENTICATION
+    }
+
+    private static final String BEARER_ADDRESS_PREFIX = "bearer-ip:";
+    private static final byte[] REJECTED_BODY = "{\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimiter rateLimiter;
+    private final List<RateLimitProperties.RouteGroup> groups;
+    private final Phase phase;
+
+    public RateLimitFilter(RateLimiter rateLimiter, List<RateLimitProperties.RouteGroup> groups, Phase phase) {
+        this.rateLimiter = rateLimiter;
+        this.groups = groups;
+        this.phase = phase;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        RateLimitProperties.RouteGroup group = findGroup(request.getRequestURI());
+        String key = group != null ? resolveKey(group, request) : null;
+
+        if (key != null) {
+            long capacity = key.startsWith(BEARER_ADDRESS_PREFIX) ? group.addressCapacity() : group.capacity();
+            long waitNanos = rateLimiter.tryAcquire(group.name() + '|' + key, capacity, group.refillPeriod().toNanos());
+            if (waitNanos > 0) {
+                reject(response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // Both instances are plain objects, give each its own "already filtered" marker
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return RateLimitFilter.class.getName() + "." + phase + ".FILTERED";
+    }
+
+    private RateLimitProperties.RouteGroup findGroup(String path) {
+        for (RateLimitProperties.RouteGroup group : groups) {
+            if (path.startsWith(group.pathPrefix())) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    private String resolveKey(RateLimitProperties.RouteGroup group, HttpServletRequest request) {
+        if (phase == Phase.BEFORE_AUTHENTICATION) {
+            if (group.key() == RateLimitProperties.KeyType.CLIENT_IP || !hasBearerToken(request)) {
+                return "ip:" + clientAddress(request);
+            }
+            // Caps what one address can make the token check cost, whether the tokens are good or not
+            return BEARER_ADDRESS_PREFIX + clientAddress(request);
+        }
+
+        if (group.key() == RateLimitProperties.KeyType.USER && hasBearerToken(request)) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()) {
+                return "user:" + authentication.getName();
+            }
+            // Token did not validate: count it against the address
+            return "ip:" + clientAddress(request);
+        }
+        return null;
+    }
+
+    // With server.forward-headers-strategy=native Tomcat has already replaced the proxy's
+    // address with the client's from X-Forwarded-For, when the request came through a trusted proxy
+    private static String clientAddress(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    private static boolean hasBearerToken(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        return authHeader != null && authHeader.startsWith("Bearer ");
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+}
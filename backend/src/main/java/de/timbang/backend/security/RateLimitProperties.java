@@ -0,0 +1,45 @@
+package de.timbang.backend.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Token bucket limits per route group, bound from {@code app.rate-limit.*}.
+ * A group allows {@code capacity} requests in a burst and refills that many per
+ * {@code refillPeriod}. The first group whose path prefix matches a request applies.
+ * <p>
+ * Bearer requests to {@link KeyType#USER} groups are also counted per client address
+ * before their token is checked, in a bucket of {@code addressCapacity} (ten times
+ * {@code capacity} unless set, so users behind one address do not starve each other).
+ */
+@ConfigurationProperties("app.rate-limit")
+public record RateLimitProperties(
+        boolean enabled,
+        List<RouteGroup> groups
+) {
+    public RateLimitProperties {
+        groups = groups != null ? List.copyOf(groups) : List.of();
+    }
+
+    public enum KeyType {
+        /** Every client address gets its own bucket. */
+        CLIENT_IP,
+        /** Authenticated users get their own bucket, anonymous requests fall back to the client address. */
+        USER
+    }
+
+    public record RouteGroup(
+            String name,
+            String pathPrefix,
+            KeyType key,
+            long capacity,
+            Duration refillPeriod,
+            Long addressCapacity
+    ) {
+        public RouteGroup {
+            addressCapacity = addressCapacity != null ? addressCapacity : capacity * 10;
+        }
+    }
+}
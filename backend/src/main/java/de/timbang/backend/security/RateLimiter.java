@@ -0,0 +1,69 @@
+package de.timbang.backend.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets, one per key.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding its "theoretical arrival time"
+ * (the generic cell rate formulation of a token bucket), so taking a token is one
+ * CAS and never blocks. Buckets are spread over independent stripes; every few
+ * thousand calls a stripe drops buckets that have fully refilled, which bounds
+ * memory under floods from many addresses.
+ */
+@Component
+public class RateLimiter {
+
+    private static final int STRIPES = 16;
+    private static final int SWEEP_EVERY = 4096;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public RateLimiter() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * @return 0 when a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    public long tryAcquire(String key, long capacity, long refillPeriodNanos) {
+        long interval = Math.max(1, refillPeriodNanos / Math.max(1, capacity));
+        long tolerance = interval * capacity;
+        long now = System.nanoTime();
+
+        Stripe stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+        stripe.maybeSweep(now);
+        AtomicLong bucket = stripe.buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+
+        while (true) {
+            long arrival = bucket.get();
+            long base = arrival - now > 0 ? arrival : now;
+            long next = base + interval;
+            long wait = next - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private static final class Stripe {
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        void maybeSweep(long now) {
+            if ((calls.incrementAndGet() & (SWEEP_EVERY - 1)) == 0) {
+                // A bucket whose arrival time has passed is full again, same as a fresh one
+                buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+            }
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package de.timbang.backend.security;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -13,10 +15,9 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
-import de.timbang.backend.service.AuthService;
-
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
     private final Environment env;
@@ -26,8 +27,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    public JwtAuthFilter jwtAuthFilter(JwtService jwtService, AuthService authService) {
-        return new JwtAuthFilter(jwtService, authService);
+    public JwtAuthFilter jwtAuthFilter(JwtService jwtService) {
+        return new JwtAuthFilter(jwtService);
     }
 
     @Bean
@@ -44,7 +45,13 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthFilter jwtAuthFilter) throws Exception {
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            JwtAuthFilter jwtAuthFilter,
+            RateLimiter rateLimiter,
+            RateLimitProperties rateLimitProperties,
+            AdminUsers adminUsers
+    ) throws Exception {
         http
             .cors(cors -> cors.configurationSource(request -> {
                 CorsConfiguration config = new CorsConfiguration();
@@ -64,10 +71,24 @@ public class SecurityConfig {
                 .requestMatchers("/api/v1/auth/**").permitAll()
                 .requestMatchers("/assets/**", "/*.js", "/*.css", "/*.html", "/*.ico", "/").permitAll()
                 .requestMatchers("/api/v1/work/**").authenticated()
+                .requestMatchers("/api/v1/migration/**").authenticated()
+                .requestMatchers("/api/v1/backups/**").authenticated()
+                .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                // Metrics name routes, users and database timings, registration is open to anyone
+                .requestMatchers("/actuator/**").access((authentication, context) ->
+                        new AuthorizationDecision(adminUsers.isAdmin(authentication.get().getName())))
                 .anyRequest().permitAll()
             )
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
+        if (rateLimitProperties.enabled()) {
+            http
+                .addFilterBefore(new RateLimitFilter(rateLimiter, rateLimitProperties.groups(),
+                        RateLimitFilter.Phase.BEFORE_AUTHENTICATION), JwtAuthFilter.class)
+                .addFilterAfter(new RateLimitFilter(rateLimiter, rateLimitProperties.groups(),
+                        RateLimitFilter.Phase.AFTER_AUTHENTICATION), JwtAuthFilter.class);
+        }
+
         return http.build();
     }
 
@@ -0,0 +1,112 @@
+package de.timbang.backend.security;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import de.timbang.backend.model.RevokedToken;
+import de.timbang.backend.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Tracks revoked token ids.
+ * <p>
+ * Every authenticated request asks {@link #isRevoked(String)}, so the answer comes
+ * from an in-memory Bloom filter; only when the filter reports a possible hit is the
+ * database consulted. Revoked ids are kept until their token expires, the hourly
+ * purge deletes the rest and rebuilds the filter from what is left.
+ * <p>
+ * With several instances on one database, a revocation reaches the other instances'
+ * filters when they next poll for rows newer than the last one they have seen, every
+ * {@code app.token-revocation.sync-interval}. Until then they still accept the token.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedRevocations;
+
+    private volatile BloomFilter filter;
+    // Highest revoked_token id already in the filter; guarded by this
+    private long lastSeenId;
+
+    public TokenRevocationService(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${app.token-revocation.expected-revocations:100000}") int expectedRevocations) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.filter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+    }
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        return revokedTokenRepository.existsByTokenId(tokenId);
+    }
+
+    /**
+     * @return false if the id had already been revoked
+     */
+    public boolean revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return true;
+        }
+
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(tokenId);
+        revokedToken.setExpiresAt(expiresAt);
+        boolean inserted = true;
+        try {
+            revokedTokenRepository.save(revokedToken);
+        } catch (DataIntegrityViolationException e) {
+            inserted = false;
+        }
+
+        synchronized (this) {
+            filter.add(tokenId);
+        }
+        return inserted;
+    }
+
+    // Picks up revocations written by other instances
+    @Scheduled(fixedDelayString = "${app.token-revocation.sync-interval:10s}",
+            initialDelayString = "${app.token-revocation.sync-interval:10s}")
+    public synchronized void syncRevocations() {
+        Instant now = Instant.now();
+        for (RevokedToken revokedToken : revokedTokenRepository.findByIdGreaterThanOrderByIdAsc(lastSeenId)) {
+            if (revokedToken.getExpiresAt().isAfter(now)) {
+                filter.add(revokedToken.getTokenId());
+            }
+            lastSeenId = revokedToken.getId();
+        }
+    }
+
+    // Runs at the start of every hour
+    @Scheduled(cron = "0 0 * * * *")
+    public void purgeExpired() {
+        revokedTokenRepository.deleteExpired(Instant.now());
+        rebuild();
+    }
+
+    // Holding the lock from reading to swapping makes a concurrent revoke land in the new filter
+    private synchronized void rebuild() {
+        // Read first: a row inserted in between is in the list and is seen again by the next sync, which is harmless
+        lastSeenId = revokedTokenRepository.findMaxId();
+        List<String> tokenIds = revokedTokenRepository.findActiveTokenIds(Instant.now());
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, tokenIds.size() * 2), FALSE_POSITIVE_RATE);
+        tokenIds.forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+}
@@ -2,6 +2,8 @@ package de.timbang.backend.service;
 
 import java.util.Optional;
 
+import de.timbang.backend.exception.ConflictException;
+import de.timbang.backend.exception.UnauthorizedException;
 import de.timbang.backend.model.JwtTokenPacket;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -12,6 +14,7 @@ import de.timbang.backend.model.dto.request.LoginRequest;
 import de.timbang.backend.model.dto.request.RegisterRequest;
 import de.timbang.backend.repository.UserRepository;
 import de.timbang.backend.security.JwtService;
+import io.jsonwebtoken.JwtException;
 
 @Service
 public class AuthService {
@@ -29,7 +32,7 @@ public class AuthService {
         // Check if username already exists
         Optional<User> existingUser = userRepository.findByUsername(request.username());
         if (existingUser.isPresent()) {
-            throw new RuntimeException("Username already exists");
+            throw new ConflictException("Username already exists");
         }
 
         User user = new User();
@@ -45,11 +48,11 @@ public class AuthService {
         // Fetch the user by username
         Optional<User> user = userRepository.findByUsername(credentials.username());
         if (user.isEmpty()) {
-            throw new RuntimeException("Invalid username or password");
+            throw new UnauthorizedException("Invalid username or password");
         }
 
         if (!passwordEncoder.matches(credentials.password(), user.get().getPassword())) {
-            throw new RuntimeException("Invalid username or password");
+            throw new UnauthorizedException("Invalid username or password");
         }
         String refreshToken = jwtService.generateRefreshToken(user.get().getUsername());
         String token = jwtService.generateToken(credentials.username());
@@ -68,7 +71,12 @@ public class AuthService {
         // Validate the current token
         String username = jwtService.extractUsername(token);
         if (!jwtService.isTokenValid(token, username)) {
-            throw new RuntimeException("Invalid token");
+            throw new UnauthorizedException("Invalid token");
+        }
+
+        // Rotate: the old refresh token is revoked, a second refresh with it fails
+        if (!jwtService.revokeToken(token)) {
+            throw new UnauthorizedException("Invalid token");
         }
 
         // Generate a new token
@@ -76,4 +84,21 @@ public class AuthService {
         String refreshToken = jwtService.generateRefreshToken(username);
         return new JwtTokenPacket(username, newToken, refreshToken);
     }
-}
\ No newline at end of file
+
+    // Each token on its own: the access token has usually expired by logout, the refresh token must still go
+    public void logout(String accessToken, String refreshToken) {
+        revokeIfAccepted(accessToken);
+        revokeIfAccepted(refreshToken);
+    }
+
+    private void revokeIfAccepted(String token) {
+        if (token == null) {
+            return;
+        }
+        try {
+            jwtService.revokeToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Expired, malformed or foreign tokens are rejected anyway, there is nothing to revoke
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package de.timbang.backend.service;
+
+import de.timbang.backend.repository.WorkSessionRepository;
+import de.timbang.backend.repository.WorkSessionTombstoneRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.LongFunction;
+
+/**
+ * Hands out the change versions used by the delta sync API.
+ * <p>
+ * The last version lives in the single row of {@code change_version_counter}. A write
+ * bumps it as the first statement of its transaction and runs in that transaction, so
+ * every instance sharing the database takes versions from the same counter. Bumping
+ * takes SQLite's write lock until commit, so versions commit in order and a version a
+ * reader sees as current never has a smaller one committing after it. Transactions the
+ * callback opens join this one; caches must be updated only once it has returned. The
+ * local lock just keeps this instance's writers from waiting on SQLite's busy timeout.
+ */
+@Service
+public class ChangeVersionService {
+
+    private static final int COUNTER_ID = 1;
+
+    private final WorkSessionRepository workSessionRepository;
+    private final WorkSessionTombstoneRepository tombstoneRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Object writeLock = new Object();
+
+    public ChangeVersionService(
+            WorkSessionRepository workSessionRepository,
+            WorkSessionTombstoneRepository tombstoneRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.workSessionRepository = workSessionRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // Never moves the counter back, whichever instance starts first
+    @PostConstruct
+    public void init() {
+        long highest = Math.max(workSessionRepository.findMaxChangeVersion(), tombstoneRepository.findMaxChangeVersion());
+        jdbcTemplate.update(
+                "INSERT INTO change_version_counter (id, version) VALUES (?, ?) " +
+                        "ON CONFLICT (id) DO UPDATE SET version = MAX(version, excluded.version)",
+                COUNTER_ID, highest);
+    }
+
+    public <T> T writeVersioned(LongFunction<T> write) {
+        synchronized (writeLock) {
+            return transactionTemplate.execute(status -> {
+                jdbcTemplate.update("UPDATE change_version_counter SET version = version + 1 WHERE id = ?", COUNTER_ID);
+                return write.apply(getCurrentVersion());
+            });
+        }
+    }
+
+    /**
+     * Every change with a version up to and including this value is already committed.
+     */
+    public long getCurrentVersion() {
+        return jdbcTemplate.queryForObject(
+                "SELECT version FROM change_version_counter WHERE id = ?", Long.class, COUNTER_ID);
+    }
+}
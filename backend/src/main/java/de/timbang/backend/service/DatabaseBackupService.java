@@ -0,0 +1,174 @@
+package de.timbang.backend.service;
+
+import de.timbang.backend.exception.ConflictException;
+import de.timbang.backend.model.dto.response.BackupResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Consistent online snapshots of the database with {@code VACUUM INTO}.
+ * <p>
+ * The database runs in WAL mode, so the snapshot is one read transaction: writers keep
+ * appending to the WAL while it runs and never wait for it, and the copy is exactly
+ * the state at its start. (The page-stepping backup API restarts whenever another
+ * connection writes, so under steady clock-ins it may never finish.) The snapshot is
+ * written to a temporary name and renamed when complete, so the backup directory only
+ * ever holds whole files; the oldest are deleted beyond {@code app.backup.retention}.
+ */
+@Service
+public class DatabaseBackupService {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseBackupService.class);
+
+    static final String PREFIX = "database-";
+    static final String SUFFIX = ".db";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path directory;
+    private final int retention;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastBytes = new AtomicLong();
+    private final AtomicLong lastSuccessEpoch = new AtomicLong();
+    private final Timer duration;
+    private final Counter failures;
+
+    public DatabaseBackupService(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.backup.directory:backups}") Path directory,
+            @Value("${app.backup.retention:7}") int retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.directory = directory;
+        this.retention = Math.max(1, retention);
+
+        this.duration = Timer.builder("db.backup.duration").register(meterRegistry);
+        this.failures = meterRegistry.counter("db.backup.failures");
+        Gauge.builder("db.backup.last.size", lastBytes, AtomicLong::get)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("db.backup.last.success", lastSuccessEpoch, AtomicLong::get)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.backup.cron:0 15 2 * * *}")
+    public void runScheduled() {
+        try {
+            backup();
+        } catch (RuntimeException e) {
+            log.error("Scheduled database backup failed", e);
+        }
+    }
+
+    public BackupResponse backup() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("A backup is already running");
+        }
+        try {
+            return snapshot();
+        } catch (RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public List<BackupResponse> listBackups() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(DatabaseBackupService::isBackup)
+                    .sorted(Comparator.comparing(Path::getFileName).reversed())
+                    .map(file -> {
+                        try {
+                            return new BackupResponse(file.getFileName().toString(), Files.size(file),
+                                    Files.getLastModifiedTime(file).toInstant(), null);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BackupResponse snapshot() {
+        Instant startedAt = Instant.now();
+        String name = PREFIX + NAME_FORMAT.format(startedAt) + SUFFIX;
+        Path target = directory.resolve(name);
+        Path partial = directory.resolve(name + ".partial");
+        try {
+            Files.createDirectories(directory);
+            Files.deleteIfExists(partial);
+
+            long start = System.nanoTime();
+            jdbcTemplate.update("VACUUM INTO ?", partial.toAbsolutePath().toString());
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            long nanos = System.nanoTime() - start;
+
+            long bytes = Files.size(target);
+            duration.record(nanos, TimeUnit.NANOSECONDS);
+            lastBytes.set(bytes);
+            lastSuccessEpoch.set(Instant.now().getEpochSecond());
+            log.info("Database backup {} written: {} bytes in {} ms", name, bytes, nanos / 1_000_000);
+
+            deleteExpired();
+            return new BackupResponse(name, bytes, startedAt, nanos / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+                // Removed before the next snapshot
+            }
+        }
+    }
+
+    // Names sort by creation time
+    private void deleteExpired() throws IOException {
+        List<Path> backups;
+        try (Stream<Path> files = Files.list(directory)) {
+            backups = files.filter(DatabaseBackupService::isBackup)
+                    .sorted(Comparator.comparing(Path::getFileName).reversed())
+                    .toList();
+        }
+        for (Path expired : backups.subList(Math.min(retention, backups.size()), backups.size())) {
+            Files.deleteIfExists(expired);
+            log.info("Deleted expired database backup {}", expired.getFileName());
+        }
+    }
+
+    private static boolean isBackup(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+}
@@ -0,0 +1,46 @@
+package de.timbang.backend.service;
+
+import de.timbang.backend.model.Holiday;
+import de.timbang.backend.model.WorkConfig;
+import de.timbang.backend.repository.HolidayRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops second-level cache entries when the underlying rows are rewritten outside of
+ * a single entity update, so no reader keeps seeing pre-import data until the TTL.
+ */
+@Component
+public class EntityCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public EntityCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    // Runs before other import listeners so they rebuild from fresh data
+    @EventListener(HolidaysImportedEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void evictHolidays() {
+        Cache cache = getCache();
+        cache.evictEntityData(Holiday.class);
+        cache.evictQueryRegion(HolidayRepository.QUERY_CACHE_REGION);
+    }
+
+    // Cached findByUser results are invalidated by Hibernate's update timestamps on the same commit
+    public void evictWorkConfig(Long configId) {
+        if (configId != null) {
+            getCache().evictEntityData(WorkConfig.class, configId);
+        }
+    }
+
+    private Cache getCache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
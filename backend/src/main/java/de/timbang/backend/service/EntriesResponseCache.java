@@ -0,0 +1,128 @@
+package de.timbang.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Caches serialized session read responses per (user, range, representation), so a
+ * repeated read from another tab skips the database and Jackson. An entry is only
+ * served while {@link UserWriteVersions} still reports the counter it was built at.
+ * <p>
+ * Bounded by the total number of cached bytes, least recently used entries go first.
+ * Hits, misses and memory use are published as {@code entries.cache.*} metrics.
+ */
+@Component
+public class EntriesResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final UserWriteVersions userWriteVersions;
+    private final boolean enabled;
+    private final long maxBytes;
+
+    private final LinkedHashMap<Key, CachedBody> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public EntriesResponseCache(
+            ObjectMapper objectMapper,
+            UserWriteVersions userWriteVersions,
+            MeterRegistry meterRegistry,
+            @Value("${app.entries-cache.enabled:true}") boolean enabled,
+            @Value("${app.entries-cache.max-bytes:33554432}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.userWriteVersions = userWriteVersions;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+
+        this.hits = meterRegistry.counter("entries.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("entries.cache.requests", "result", "miss");
+        Gauge.builder("entries.cache.size", this, EntriesResponseCache::getUsedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("entries.cache.entries", this, EntriesResponseCache::getEntryCount)
+                .register(meterRegistry);
+        Gauge.builder("entries.cache.hit.ratio", this, EntriesResponseCache::getHitRatio)
+                .register(meterRegistry);
+    }
+
+    public byte[] getJson(String username, LocalDateTime start, LocalDateTime end, String representation, Supplier<?> loader) {
+        if (!enabled) {
+            return serialize(loader.get());
+        }
+
+        Key key = new Key(username, start, end, representation);
+        long version = userWriteVersions.current(username);
+
+        synchronized (this) {
+            CachedBody cached = entries.get(key);
+            if (cached != null && cached.writeVersion() == version) {
+                hits.increment();
+                return cached.body();
+            }
+        }
+
+        misses.increment();
+        byte[] body = serialize(loader.get());
+
+        synchronized (this) {
+            if (body.length <= maxBytes) {
+                CachedBody previous = entries.put(key, new CachedBody(body, version));
+                if (previous != null) {
+                    usedBytes -= previous.body().length;
+                }
+                usedBytes += body.length;
+                evictOverflow();
+            }
+        }
+        return body;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public double getHitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Key, CachedBody>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().getValue().body().length;
+            eldest.remove();
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Key(String username, LocalDateTime start, LocalDateTime end, String representation) {
+    }
+
+    private record CachedBody(byte[] body, long writeVersion) {
+    }
+}
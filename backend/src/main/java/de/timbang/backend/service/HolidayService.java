@@ -4,43 +4,90 @@ import de.timbang.backend.model.Holiday;
 import de.timbang.backend.model.HolidayEntry;
 import de.timbang.backend.model.State;
 import de.timbang.backend.repository.HolidayRepository;
-import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import java.sql.Date;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Holidays of all states from feiertage-api.de, replaced by a monthly import.
+ * <p>
+ * With several instances on one database the import runs on whichever instance gets
+ * the {@value #IMPORT_LEASE} lease; it replaces the rows in one transaction and bumps
+ * the lease's generation. The other instances poll that generation and, when it moved,
+ * publish {@link HolidaysImportedEvent} locally so their caches reload from the
+ * database instead of fetching the API themselves.
+ */
 @Service
 public class HolidayService {
 
+    static final String IMPORT_LEASE = "holiday-import";
+
+    private static final Logger log = LoggerFactory.getLogger(HolidayService.class);
+    private static final Duration IMPORT_LEASE_TTL = Duration.ofHours(1);
+
     private final HolidayRepository holidayRepository;
     private final WebClient webClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SchedulerLeaseService leaseService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final SingleFlight<State, List<Holiday>> holidayLoads = new SingleFlight<>();
 
-    public HolidayService(HolidayRepository holidayRepository, WebClient webClient) {
+    // Import generation this instance's caches reflect
+    private volatile long seenGeneration;
+
+    public HolidayService(HolidayRepository holidayRepository, WebClient webClient, ApplicationEventPublisher eventPublisher,
+                          SchedulerLeaseService leaseService, TransactionTemplate transactionTemplate) {
         this.holidayRepository = holidayRepository;
         this.webClient = webClient;
+        this.eventPublisher = eventPublisher;
+        this.leaseService = leaseService;
+        this.transactionTemplate = transactionTemplate;
     }
 
     // Runs at midnight on the 1st of every month
     @Scheduled(cron = "0 0 0 1 * *")
     public void scheduled() {
-        fetchAndStoreHolidaysIfEmpty();
+        fetchAndStoreHolidays();
     }
 
-    @PostConstruct
+    // Not needed to serve requests, so it waits until startup has finished
+    @EventListener(ApplicationReadyEvent.class)
     public void init() {
+        seenGeneration = leaseService.generation(IMPORT_LEASE);
         if (holidayRepository.count() == 0) {
-            fetchAndStoreHolidaysIfEmpty();
+            fetchAndStoreHolidays();
+        }
+    }
+
+    // Picks up imports done by another instance
+    @Scheduled(fixedDelayString = "${app.holidays.generation-poll:1m}", initialDelayString = "${app.holidays.generation-poll:1m}")
+    public void pollImportGeneration() {
+        long generation = leaseService.generation(IMPORT_LEASE);
+        if (generation != seenGeneration) {
+            seenGeneration = generation;
+            eventPublisher.publishEvent(new HolidaysImportedEvent());
         }
     }
 
-    private void fetchAndStoreHolidaysIfEmpty() {
+    private void fetchAndStoreHolidays() {
+        if (!leaseService.tryAcquire(IMPORT_LEASE, IMPORT_LEASE_TTL)) {
+            return;
+        }
         webClient.get()
                 .uri("https://feiertage-api.de/api/")
                 .accept(MediaType.APPLICATION_JSON)
@@ -48,34 +95,44 @@ public class HolidayService {
                 .bodyToMono(new ParameterizedTypeReference<Map<String, Map<String, HolidayEntry>>>() {})
                 .subscribe(response -> {
                     if (response.isEmpty()) {
+                        leaseService.release(IMPORT_LEASE);
                         return;
                     }
-                    this.clearAll();
-
-                    response.forEach((stateShortHandle, holidaysByState) -> {
-                        holidaysByState.forEach((holidayName, holiday) -> {
-                            LocalDate parsedDate = LocalDate.parse(holiday.getDatum());
-                            Holiday newHoliday = Holiday.builder()
-                                    .description(holiday.getHinweis())
-                                    .name(holidayName)
-                                    .date(parsedDate)
-                                    .state(State.valueOf(stateShortHandle))
-                                    .build();
-                            save(newHoliday);
-                        });
-                    });
+                    try {
+                        replaceAll(response);
+                    } catch (RuntimeException e) {
+                        leaseService.release(IMPORT_LEASE);
+                        throw e;
+                    }
+                    seenGeneration = leaseService.completeRun(IMPORT_LEASE);
+                    eventPublisher.publishEvent(new HolidaysImportedEvent());
+                }, error -> {
+                    log.warn("Holiday import failed", error);
+                    leaseService.release(IMPORT_LEASE);
                 });
     }
 
-    private void save(Holiday holiday) {
-        this.holidayRepository.save(holiday);
-    }
-
-    private void clearAll() {
-        this.holidayRepository.deleteAll();
+    // Readers on other instances see either the old or the new holidays, never an empty table
+    private void replaceAll(Map<String, Map<String, HolidayEntry>> response) {
+        List<Holiday> holidays = new ArrayList<>();
+        response.forEach((stateShortHandle, holidaysByState) -> {
+            holidaysByState.forEach((holidayName, holiday) -> {
+                LocalDate parsedDate = LocalDate.parse(holiday.getDatum());
+                holidays.add(Holiday.builder()
+                        .description(holiday.getHinweis())
+                        .name(holidayName)
+                        .date(parsedDate)
+                        .state(State.valueOf(stateShortHandle))
+                        .build());
+            });
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            holidayRepository.deleteAll();
+            holidayRepository.saveAll(holidays);
+        });
     }
 
     public List<Holiday> getHolidaysByState(State state) {
-        return holidayRepository.findHolidayByState(state);
+        return holidayLoads.execute(state, () -> List.copyOf(holidayRepository.findHolidayByState(state)));
     }
 }
@@ -0,0 +1,7 @@
+package de.timbang.backend.service;
+
+/**
+ * Published after the holiday table has been replaced by a fresh import.
+ */
+public record HolidaysImportedEvent() {
+}
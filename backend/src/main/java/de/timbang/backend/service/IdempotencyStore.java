@@ -0,0 +1,125 @@
+package de.timbang.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.timbang.backend.exception.UnprocessableEntityException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the result of writes that were sent with an {@code Idempotency-Key}
+ * header, so a retried or double-submitted request gets the first response back
+ * instead of writing again. A duplicate that arrives while the first call is still
+ * running waits for it. Failed calls are forgotten and may be retried.
+ * <p>
+ * Each entry keeps a SHA-256 of the request it was created for. Reusing a key with a
+ * different request fails with 422 instead of replaying a response that belongs to
+ * another payload.
+ * <p>
+ * Entries expire after a fixed time and the store never holds more than
+ * {@code maxKeys} of them; the oldest are dropped first.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final ObjectMapper objectMapper;
+    private final long ttlMillis;
+    private final int maxKeys;
+
+    // Insertion ordered, so the head is always the entry that expires next
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyStore(
+            ObjectMapper objectMapper,
+            @Value("${app.idempotency.ttl-seconds:86400}") long ttlSeconds,
+            @Value("${app.idempotency.max-keys:10000}") int maxKeys) {
+        this.objectMapper = objectMapper;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxKeys = maxKeys;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String username, String operation, String key, Object request, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        byte[] fingerprint = fingerprint(request);
+        String storeKey = username + '\u0000' + operation + '\u0000' + key;
+        long now = System.currentTimeMillis();
+        Entry entry;
+        boolean owner = false;
+
+        synchronized (entries) {
+            evictExpired(now);
+            entry = entries.get(storeKey);
+            if (entry == null) {
+                entry = new Entry(new CompletableFuture<>(), fingerprint, now + ttlMillis);
+                entries.put(storeKey, entry);
+                owner = true;
+                if (entries.size() > maxKeys) {
+                    Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+
+        if (!owner) {
+            if (!Arrays.equals(entry.fingerprint(), fingerprint)) {
+                throw new UnprocessableEntityException("Idempotency-Key was already used for a different request");
+            }
+            try {
+                return (T) entry.result().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            T result = action.get();
+            entry.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(storeKey, entry);
+            }
+            entry.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt() > now) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private byte[] fingerprint(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(CompletableFuture<Object> result, byte[] fingerprint, long expiresAt) {
+    }
+}
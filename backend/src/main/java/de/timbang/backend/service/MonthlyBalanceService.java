@@ -0,0 +1,342 @@
+package de.timbang.backend.service;
+
+import de.timbang.backend.exception.NotFoundException;
+import de.timbang.backend.model.BalanceJobRun;
+import de.timbang.backend.model.User;
+import de.timbang.backend.model.dto.response.MonthlyBalanceResponse;
+import de.timbang.backend.repository.BalanceJobRunRepository;
+import de.timbang.backend.repository.MonthlyBalanceRepository;
+import de.timbang.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Month-end balance job: worked hours of every user for a month against their
+ * {@code expectedMonthlyHours}, written to {@code monthly_balance}.
+ * <p>
+ * Users are walked in id order in chunks. For each chunk the closed sessions of the
+ * month are read in one index range scan into primitive arrays, aggregated per user
+ * in parallel, and the results are written together with the chunk's checkpoint in
+ * one transaction. Memory is bounded by the chunk, and a failed or interrupted run
+ * resumes after the last committed chunk; rows are upserted, so repeating a chunk
+ * is harmless. Sessions count towards the month they start in, in the user's zone,
+ * like {@code /expected-hours}.
+ * <p>
+ * A run records the change version its balances include. Sessions added, edited,
+ * auto-closed or deleted after that, even long after month end, are picked up by
+ * running a completed month again: it recomputes only users with a session or
+ * tombstone of a later version, which the nightly job does for every completed month.
+ * Months reaching into the session archive keep their balance, the job does not read
+ * archived sessions and they cannot change.
+ */
+@Service
+public class MonthlyBalanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(MonthlyBalanceService.class);
+
+    // Same default WorkService gives a new config
+    private static final int DEFAULT_MONTHLY_HOURS = 160;
+    // Widest UTC offsets, so one epoch range covers the month in every zone
+    private static final Duration MAX_ZONE_OFFSET = Duration.ofHours(18);
+    private static final String USER_QUERY = "SELECT u.id, u.zone_id, c.expected_monthly_hours FROM user u " +
+            "LEFT JOIN work_config c ON c.user_id = u.id ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceJobRunRepository jobRunRepository;
+    private final MonthlyBalanceRepository balanceRepository;
+    private final UserRepository userRepository;
+    private final ChangeVersionService changeVersionService;
+    private final SessionArchiveService sessionArchive;
+    private final int chunkSize;
+    private final int parallelism;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public MonthlyBalanceService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            BalanceJobRunRepository jobRunRepository,
+            MonthlyBalanceRepository balanceRepository,
+            UserRepository userRepository,
+            ChangeVersionService changeVersionService,
+            SessionArchiveService sessionArchive,
+            @Value("${app.balance-job.chunk-size:1000}") int chunkSize,
+            @Value("${app.balance-job.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jobRunRepository = jobRunRepository;
+        this.balanceRepository = balanceRepository;
+        this.userRepository = userRepository;
+        this.changeVersionService = changeVersionService;
+        this.sessionArchive = sessionArchive;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    // Runs every night; does the previous month once, or finishes it after a failed run,
+    // then brings completed months up to date with changes made since
+    @Scheduled(cron = "0 30 1 * * *")
+    public void runPreviousMonth() {
+        try {
+            run(YearMonth.now().minusMonths(1));
+            for (BalanceJobRun completed : jobRunRepository.findByStatusOrderByReportYearAscReportMonthAsc(
+                    BalanceJobRun.Status.COMPLETED)) {
+                run(YearMonth.of(completed.getReportYear(), completed.getReportMonth()));
+            }
+        } catch (RuntimeException e) {
+            log.error("Monthly balance job failed, it resumes on the next run", e);
+        }
+    }
+
+    public MonthlyBalanceResponse getBalance(String username, YearMonth month) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        return balanceRepository.findByUserAndReportYearAndReportMonth(user, month.getYear(), month.getMonthValue())
+                .map(MonthlyBalanceResponse::fromEntity)
+                .orElseThrow(() -> new NotFoundException("No balance for this month yet"));
+    }
+
+    public BalanceJobRun run(YearMonth month) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Monthly balance job is already running");
+        }
+        try {
+            return runExclusive(month);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private BalanceJobRun runExclusive(YearMonth month) {
+        BalanceJobRun run = jobRunRepository.findByReportYearAndReportMonth(month.getYear(), month.getMonthValue())
+                .orElseGet(() -> {
+                    BalanceJobRun created = new BalanceJobRun();
+                    created.setReportYear(month.getYear());
+                    created.setReportMonth(month.getMonthValue());
+                    return created;
+                });
+        if (run.getStatus() == BalanceJobRun.Status.COMPLETED) {
+            if (sessionArchive.covers(rangeStart(month))) {
+                return run;
+            }
+            if (run.getChangeVersion() != null) {
+                return recomputeChangedUsers(run, month);
+            }
+            // Completed before runs recorded their change version: recompute everyone once
+            run.setLastUserId(0);
+            run.setProcessedUsers(0);
+        }
+
+        run.setStatus(BalanceJobRun.Status.RUNNING);
+        run.setStartedAt(Instant.now());
+        run.setError(null);
+        // Kept by a resumed run, so changes made while its first chunks were written are recomputed
+        if (run.getChangeVersion() == null) {
+            run.setChangeVersion(changeVersionService.getCurrentVersion());
+        }
+        run = jobRunRepository.save(run);
+
+        long lastUserId = run.getLastUserId();
+        long processedUsers = run.getProcessedUsers();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<UserRow> users;
+            do {
+                users = loadUsers(lastUserId);
+                if (!users.isEmpty()) {
+                    processChunk(run.getId(), month, users, processedUsers + users.size(), pool);
+                    lastUserId = users.get(users.size() - 1).id();
+                    processedUsers += users.size();
+                }
+            } while (users.size() == chunkSize);
+
+            run.setStatus(BalanceJobRun.Status.COMPLETED);
+            run.setFinishedAt(Instant.now());
+            log.info("Monthly balance for {} written for {} users", month, processedUsers);
+        } catch (RuntimeException e) {
+            run.setStatus(BalanceJobRun.Status.FAILED);
+            run.setError(e.getMessage());
+            throw e;
+        } finally {
+            pool.shutdown();
+            run.setLastUserId(lastUserId);
+            run.setProcessedUsers(processedUsers);
+            jobRunRepository.save(run);
+        }
+        return run;
+    }
+
+    // The version is read before the sessions, anything committed later is picked up by the next run
+    private BalanceJobRun recomputeChangedUsers(BalanceJobRun run, YearMonth month) {
+        long version = changeVersionService.getCurrentVersion();
+        if (version <= run.getChangeVersion()) {
+            return run;
+        }
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT user_id FROM work_session WHERE change_version > ? " +
+                        "UNION SELECT user_id FROM work_session_tombstone WHERE change_version > ? ORDER BY 1",
+                Long.class, run.getChangeVersion(), run.getChangeVersion());
+
+        long generatedAt = Instant.now().getEpochSecond();
+        List<Object[]> rows = new ArrayList<>();
+        for (Long userId : userIds) {
+            for (UserRow user : loadUser(userId)) {
+                rows.add(aggregate(month, user, loadSessions(month, user.id(), user.id()), generatedAt));
+            }
+            if (rows.size() == chunkSize) {
+                writeBalances(rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            writeBalances(rows);
+        }
+
+        run.setChangeVersion(version);
+        if (!userIds.isEmpty()) {
+            log.info("Monthly balance for {} recomputed for {} users with later changes", month, userIds.size());
+        }
+        return jobRunRepository.save(run);
+    }
+
+    private List<UserRow> loadUsers(long afterUserId) {
+        return jdbcTemplate.query(USER_QUERY + "WHERE u.id > ? ORDER BY u.id LIMIT ?",
+                MonthlyBalanceService::userRow, afterUserId, chunkSize);
+    }
+
+    // Empty once the user is gone
+    private List<UserRow> loadUser(long userId) {
+        return jdbcTemplate.query(USER_QUERY + "WHERE u.id = ?", MonthlyBalanceService::userRow, userId);
+    }
+
+    private static UserRow userRow(ResultSet rs, int rowNum) throws SQLException {
+        int expected = rs.getInt("expected_monthly_hours");
+        if (rs.wasNull()) {
+            expected = DEFAULT_MONTHLY_HOURS;
+        }
+        return new UserRow(rs.getLong("id"), User.zoneOf(rs.getString("zone_id")), expected);
+    }
+
+    private void processChunk(long runId, YearMonth month, List<UserRow> users, long processedUsers, ForkJoinPool pool) {
+        SessionChunk sessions = loadSessions(month, users.get(0).id(), users.get(users.size() - 1).id());
+        long generatedAt = Instant.now().getEpochSecond();
+
+        List<Object[]> rows = pool.submit(() -> IntStream.range(0, users.size())
+                .parallel()
+                .mapToObj(i -> aggregate(month, users.get(i), sessions, generatedAt))
+                .toList()).join();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            writeBalances(rows);
+            jdbcTemplate.update(
+                    "UPDATE balance_job_run SET last_user_id = ?, processed_users = ? WHERE id = ?",
+                    users.get(users.size() - 1).id(), processedUsers, runId);
+        });
+    }
+
+    private void writeBalances(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(
+                "INSERT OR REPLACE INTO monthly_balance " +
+                        "(user_id, report_year, report_month, worked_seconds, expected_hours, session_count, generated_epoch) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                rows);
+    }
+
+    // Ordered by user and start, which is the order of idx_work_session_user_start
+    private SessionChunk loadSessions(YearMonth month, long firstUserId, long lastUserId) {
+        long from = rangeStart(month);
+        long to = month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC).plus(MAX_ZONE_OFFSET).toEpochSecond();
+
+        SessionChunk chunk = new SessionChunk();
+        jdbcTemplate.query(
+                "SELECT user_id, start_epoch, end_epoch FROM work_session " +
+                        "WHERE user_id BETWEEN ? AND ? AND start_epoch >= ? AND start_epoch < ? AND end_epoch IS NOT NULL " +
+                        "ORDER BY user_id, start_epoch",
+                rs -> {
+                    chunk.add(rs.getLong("user_id"), rs.getLong("start_epoch"), rs.getLong("end_epoch"));
+                },
+                firstUserId, lastUserId, from, to);
+        return chunk;
+    }
+
+    private static long rangeStart(YearMonth month) {
+        return month.atDay(1).atStartOfDay(ZoneOffset.UTC).minus(MAX_ZONE_OFFSET).toEpochSecond();
+    }
+
+    private static Object[] aggregate(YearMonth month, UserRow user, SessionChunk sessions, long generatedAt) {
+        long from = month.atDay(1).atStartOfDay(user.zone()).toEpochSecond();
+        long to = month.plusMonths(1).atDay(1).atStartOfDay(user.zone()).toEpochSecond();
+
+        long workedSeconds = 0;
+        int sessionCount = 0;
+        for (int i = sessions.firstIndexOf(user.id()); i < sessions.size && sessions.userIds[i] == user.id(); i++) {
+            if (sessions.starts[i] >= from && sessions.starts[i] < to) {
+                workedSeconds += sessions.ends[i] - sessions.starts[i];
+                sessionCount++;
+            }
+        }
+        return new Object[]{user.id(), month.getYear(), month.getMonthValue(), workedSeconds,
+                user.expectedMonthlyHours(), sessionCount, generatedAt};
+    }
+
+    private record UserRow(long id, ZoneId zone, int expectedMonthlyHours) {
+    }
+
+    /**
+     * One chunk's sessions as parallel arrays sorted by user id, read-only once loaded.
+     */
+    private static final class SessionChunk {
+        private long[] userIds = new long[1024];
+        private long[] starts = new long[1024];
+        private long[] ends = new long[1024];
+        private int size;
+
+        void add(long userId, long start, long end) {
+            if (size == userIds.length) {
+                userIds = Arrays.copyOf(userIds, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            userIds[size] = userId;
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        // First index holding userId, or where it would be
+        int firstIndexOf(long userId) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (userIds[mid] < userId) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
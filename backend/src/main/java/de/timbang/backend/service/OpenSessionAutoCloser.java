@@ -0,0 +1,210 @@
+package de.timbang.backend.service;
+
+import de.timbang.backend.audit.SessionAuditLog;
+import de.timbang.backend.model.WorkConfig;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Closes sessions users forgot to clock out of.
+ * <p>
+ * Open sessions are found through the partial index {@code idx_work_session_open},
+ * which only holds rows with {@code end_epoch IS NULL}, so a run costs the number of
+ * open sessions, not the size of the history. A session open for longer than
+ * {@code stale-after} is closed at its start plus the user's expected daily hours
+ * (policy {@code EXPECTED_DAILY_HOURS}, falling back to the cap when the user has
+ * none) or plus the cap (policy {@code CAP}), never later than the cap allows.
+ * <p>
+ * Each batch is one versioned write: the updates carry a new change version and the
+ * session's optimistic version, so a session edited in the meantime is left alone,
+ * and {@code /work/changes} picks up what was closed. Each closed session gets an
+ * {@code AUTO_CLOSE} audit row and connected clients are told through
+ * {@link SessionsAutoClosedEvent}.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class OpenSessionAutoCloser {
+
+    public enum Policy {
+        EXPECTED_DAILY_HOURS,
+        CAP
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(OpenSessionAutoCloser.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeVersionService changeVersionService;
+    private final SessionTimelineCache timelineCache;
+    private final UserWriteVersions userWriteVersions;
+    private final WorkCalendarService workCalendarService;
+    private final SessionAuditLog sessionAuditLog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Policy policy;
+    private final Duration staleAfter;
+    private final Duration cap;
+    private final int batchSize;
+
+    public OpenSessionAutoCloser(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ChangeVersionService changeVersionService,
+            SessionTimelineCache timelineCache,
+            UserWriteVersions userWriteVersions,
+            WorkCalendarService workCalendarService,
+            SessionAuditLog sessionAuditLog,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.auto-close.enabled:true}") boolean enabled,
+            @Value("${app.auto-close.policy:EXPECTED_DAILY_HOURS}") Policy policy,
+            @Value("${app.auto-close.stale-after:16h}") Duration staleAfter,
+            @Value("${app.auto-close.cap:10h}") Duration cap,
+            @Value("${app.auto-close.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.changeVersionService = changeVersionService;
+        this.timelineCache = timelineCache;
+        this.userWriteVersions = userWriteVersions;
+        this.workCalendarService = workCalendarService;
+        this.sessionAuditLog = sessionAuditLog;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.policy = policy;
+        this.staleAfter = staleAfter;
+        this.cap = cap;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void createIndex() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_work_session_open " +
+                "ON work_session (start_epoch) WHERE end_epoch IS NULL");
+    }
+
+    @Scheduled(fixedDelayString = "${app.auto-close.interval:15m}", initialDelayString = "${app.auto-close.interval:15m}")
+    public void runScheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int closed = closeStaleSessions(Instant.now());
+            if (closed > 0) {
+                log.info("Auto-closed {} open work sessions", closed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Auto-closing open work sessions failed", e);
+        }
+    }
+
+    /**
+     * Closes every session that started before {@code now - staleAfter} and is still open.
+     */
+    public int closeStaleSessions(Instant now) {
+        long startedBefore = now.minus(staleAfter).getEpochSecond();
+        int closed = 0;
+        OpenSession last = null;
+        List<OpenSession> batch;
+        do {
+            batch = loadOpenSessions(startedBefore, last);
+            if (!batch.isEmpty()) {
+                closed += closeBatch(batch, now.getEpochSecond());
+                last = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() == batchSize);
+        return closed;
+    }
+
+    // Keyset over the partial index; sessions skipped because of a concurrent edit are not read again
+    private List<OpenSession> loadOpenSessions(long startedBefore, OpenSession after) {
+        String keyset = after != null ? "AND (s.start_epoch > ? OR (s.start_epoch = ? AND s.id > ?)) " : "";
+        Object[] args = after != null
+                ? new Object[]{startedBefore, after.start(), after.start(), after.id(), batchSize}
+                : new Object[]{startedBefore, batchSize};
+        return jdbcTemplate.query(
+                "SELECT s.id, s.user_id, s.start_epoch, s.notes, s.version, u.username, " +
+                        "c.expected_weekly_hours, c.work_days FROM work_session s INDEXED BY idx_work_session_open " +
+                        "JOIN user u ON u.id = s.user_id " +
+                        "LEFT JOIN work_config c ON c.user_id = s.user_id " +
+                        "WHERE s.end_epoch IS NULL AND s.start_epoch < ? " + keyset +
+                        "ORDER BY s.start_epoch, s.id LIMIT ?",
+                (rs, rowNum) -> {
+                    WorkConfig config = new WorkConfig();
+                    int weeklyHours = rs.getInt("expected_weekly_hours");
+                    config.setExpectedWeeklyHours(rs.wasNull() ? null : weeklyHours);
+                    config.setWorkDays(rs.getString("work_days"));
+                    return new OpenSession(
+                            rs.getLong("id"),
+                            rs.getLong("user_id"),
+                            rs.getString("username"),
+                            rs.getLong("start_epoch"),
+                            rs.getString("notes"),
+                            rs.getLong("version"),
+                            workCalendarService.getDailyHours(config));
+                },
+                args);
+    }
+
+    private int closeBatch(List<OpenSession> batch, long now) {
+        record Result(long version, List<OpenSession> closed) {
+        }
+
+        Result result = changeVersionService.writeVersioned(version -> transactionTemplate.execute(status -> {
+            List<Object[]> updates = new ArrayList<>(batch.size());
+            for (OpenSession session : batch) {
+                updates.add(new Object[]{closingTime(session, now), version, session.id(), session.version()});
+            }
+            int[] counts = jdbcTemplate.batchUpdate(
+                    "UPDATE work_session SET end_epoch = ?, change_version = ?, version = version + 1 " +
+                            "WHERE id = ? AND version = ? AND end_epoch IS NULL",
+                    updates);
+
+            List<OpenSession> closed = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (counts[i] != 0) {
+                    closed.add(batch.get(i));
+                }
+            }
+            return new Result(version, closed);
+        }));
+
+        Map<String, List<Long>> closedByUser = new LinkedHashMap<>();
+        for (OpenSession session : result.closed()) {
+            timelineCache.invalidate(session.userId());
+            sessionAuditLog.recordAutoClose(session.id(), session.userId(), Instant.ofEpochSecond(session.start()),
+                    session.notes(), Instant.ofEpochSecond(closingTime(session, now)), result.version());
+            closedByUser.computeIfAbsent(session.username(), key -> new ArrayList<>()).add(session.id());
+        }
+        closedByUser.forEach((username, sessionIds) -> {
+            userWriteVersions.bump(username);
+            eventPublisher.publishEvent(new SessionsAutoClosedEvent(username, sessionIds, result.version()));
+        });
+        return result.closed().size();
+    }
+
+    private long closingTime(OpenSession session, long now) {
+        long capSeconds = cap.toSeconds();
+        long duration = capSeconds;
+        if (policy == Policy.EXPECTED_DAILY_HOURS && session.dailyHours() > 0) {
+            duration = Math.min(capSeconds, Math.round(session.dailyHours() * 3600));
+        }
+        return Math.min(session.start() + duration, now);
+    }
+
+    private record OpenSession(long id, long userId, String username, long start, String notes, long version, double dailyHours) {
+    }
+}
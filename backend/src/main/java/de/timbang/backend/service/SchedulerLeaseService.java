@@ -0,0 +1,61 @@
+package de.timbang.backend.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Time-limited leases in {@code scheduler_lease}, so a job scheduled on every instance
+ * runs on one of them only. Acquiring is a single upsert that succeeds only when the
+ * lease is free, expired or already held by this instance; a lease left behind by a
+ * crashed instance simply expires.
+ */
+@Service
+public class SchedulerLeaseService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String instanceId;
+
+    public SchedulerLeaseService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    public boolean tryAcquire(String name, Duration ttl) {
+        long now = Instant.now().getEpochSecond();
+        return jdbcTemplate.update(
+                "INSERT INTO scheduler_lease (name, owner, expires_epoch, generation) VALUES (?, ?, ?, 0) " +
+                        "ON CONFLICT (name) DO UPDATE SET owner = excluded.owner, expires_epoch = excluded.expires_epoch " +
+                        "WHERE scheduler_lease.expires_epoch <= ? OR scheduler_lease.owner = excluded.owner",
+                name, instanceId, now + ttl.toSeconds(), now) > 0;
+    }
+
+    /**
+     * Gives the lease up early, e.g. after a failed run so another instance may retry.
+     */
+    public void release(String name) {
+        jdbcTemplate.update("UPDATE scheduler_lease SET expires_epoch = 0 WHERE name = ? AND owner = ?",
+                name, instanceId);
+    }
+
+    /**
+     * Records a completed run and returns the new generation. The lease is kept until it
+     * expires, so instances whose schedule fires a little later do not repeat the run.
+     */
+    public long completeRun(String name) {
+        jdbcTemplate.update("UPDATE scheduler_lease SET generation = generation + 1 WHERE name = ? AND owner = ?",
+                name, instanceId);
+        return generation(name);
+    }
+
+    public long generation(String name) {
+        List<Long> generation = jdbcTemplate.queryForList(
+                "SELECT generation FROM scheduler_lease WHERE name = ?", Long.class, name);
+        return generation.isEmpty() ? 0 : generation.get(0);
+    }
+}
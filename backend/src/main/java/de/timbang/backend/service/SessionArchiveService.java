@@ -0,0 +1,270 @@
+package de.timbang.backend.service;
+
+import de.timbang.backend.model.User;
+import de.timbang.backend.model.WorkSession;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves closed sessions older than {@code app.archive.horizon} out of
+ * {@code work_session} into one table per start year ({@code work_session_archive_<year>},
+ * UTC), so the hot table and its indexes only hold recent history.
+ * <p>
+ * The manifest table {@code session_archive} lists the partitions with their row count
+ * and start range and is kept in memory. Reads only touch a partition when the
+ * requested range reaches below the newest archived start; everything after that is
+ * answered from the hot table alone. Archived sessions are read-only: edits, deletes,
+ * the notes search and {@code /work/changes} cover the hot table. Like the partitions
+ * themselves, the manifest is plain DDL rather than an entity.
+ * <p>
+ * Users are walked in id chunks along {@code idx_work_session_user_start}; each chunk's
+ * sessions are copied and deleted per year in one transaction, so a run can stop at any
+ * point without losing or duplicating a session.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class SessionArchiveService {
+
+    static final String MANIFEST_TABLE = "session_archive";
+    static final String PARTITION_PREFIX = "work_session_archive_";
+
+    private static final Logger log = LoggerFactory.getLogger(SessionArchiveService.class);
+    private static final String COLUMNS = "id, user_id, start_epoch, end_epoch, notes, change_version, version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SessionTimelineCache timelineCache;
+    private final UserWriteVersions userWriteVersions;
+    private final boolean enabled;
+    private final Duration horizon;
+    private final int userChunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile List<Partition> partitions = List.of();
+
+    public SessionArchiveService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            SessionTimelineCache timelineCache,
+            UserWriteVersions userWriteVersions,
+            @Value("${app.archive.enabled:true}") boolean enabled,
+            @Value("${app.archive.horizon:730d}") Duration horizon,
+            @Value("${app.archive.user-chunk-size:200}") int userChunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.timelineCache = timelineCache;
+        this.userWriteVersions = userWriteVersions;
+        this.enabled = enabled;
+        this.horizon = horizon;
+        this.userChunkSize = userChunkSize;
+    }
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + MANIFEST_TABLE + " (" +
+                "year INTEGER PRIMARY KEY, table_name TEXT NOT NULL, session_count INTEGER NOT NULL, " +
+                "min_start_epoch INTEGER NOT NULL, max_start_epoch INTEGER NOT NULL)");
+        reloadManifest();
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 0 3 * * *}")
+    public void runScheduled() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveOlderThan(Instant.now().minus(horizon));
+        } catch (RuntimeException e) {
+            log.error("Archiving old work sessions failed, it continues on the next run", e);
+        }
+    }
+
+    /**
+     * Moves every closed session starting before {@code cutoff} into its year's partition.
+     */
+    public long archiveOlderThan(Instant cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            long moved = 0;
+            long lastUserId = 0;
+            List<Long> userIds;
+            do {
+                userIds = jdbcTemplate.queryForList(
+                        "SELECT id FROM user WHERE id > ? ORDER BY id LIMIT ?", Long.class, lastUserId, userChunkSize);
+                if (!userIds.isEmpty()) {
+                    moved += archiveChunk(userIds.get(0), userIds.get(userIds.size() - 1), cutoff.getEpochSecond());
+                    lastUserId = userIds.get(userIds.size() - 1);
+                }
+            } while (userIds.size() == userChunkSize);
+
+            if (moved > 0) {
+                log.info("Archived {} work sessions that started before {}", moved, cutoff);
+            }
+            return moved;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Whether a range starting at {@code fromEpoch} (null for unbounded) can contain archived sessions.
+     */
+    public boolean covers(Long fromEpoch) {
+        List<Partition> current = partitions;
+        return !current.isEmpty() && (fromEpoch == null || fromEpoch <= current.get(current.size() - 1).maxStart());
+    }
+
+    /**
+     * Archived sessions of the user starting within [fromEpoch, toEpoch], both inclusive and null for unbounded.
+     */
+    public List<WorkSession> find(User user, Long fromEpoch, Long toEpoch) {
+        long from = fromEpoch != null ? fromEpoch : Long.MIN_VALUE;
+        long to = toEpoch != null ? toEpoch : Long.MAX_VALUE;
+        List<WorkSession> sessions = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (partition.maxStart() >= from && partition.minStart() <= to) {
+                sessions.addAll(jdbcTemplate.query(
+                        "SELECT " + COLUMNS + " FROM " + partition.tableName() +
+                                " WHERE user_id = ? AND start_epoch BETWEEN ? AND ?",
+                        (rs, rowNum) -> toSession(user, rs), user.getId(), from, to));
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * Archived sessions of the user newest start first, skipping {@code offset}; partitions
+     * are visited from the newest year down and stop once {@code limit} is reached.
+     */
+    public List<WorkSession> pageByStartDescending(User user, long offset, int limit) {
+        List<WorkSession> sessions = new ArrayList<>(limit);
+        long skip = offset;
+        List<Partition> current = partitions;
+        for (int i = current.size() - 1; i >= 0 && sessions.size() < limit; i--) {
+            String table = current.get(i).tableName();
+            Long count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + table + " WHERE user_id = ?", Long.class, user.getId());
+            if (count == null || count <= skip) {
+                skip -= count != null ? count : 0;
+                continue;
+            }
+            sessions.addAll(jdbcTemplate.query(
+                    "SELECT " + COLUMNS + " FROM " + table +
+                            " WHERE user_id = ? ORDER BY start_epoch DESC, id DESC LIMIT ? OFFSET ?",
+                    (rs, rowNum) -> toSession(user, rs), user.getId(), limit - sessions.size(), skip));
+            skip = 0;
+        }
+        return sessions;
+    }
+
+    public long getArchivedSessions() {
+        return partitions.stream().mapToLong(Partition::sessionCount).sum();
+    }
+
+    private long archiveChunk(long firstUserId, long lastUserId, long cutoffEpoch) {
+        // Index-only range over (user_id, start_epoch, end_epoch)
+        Map<Integer, List<Object[]>> idsByYear = new TreeMap<>();
+        Set<Long> userIds = new HashSet<>();
+        jdbcTemplate.query(
+                "SELECT id, user_id, start_epoch FROM work_session " +
+                        "WHERE user_id BETWEEN ? AND ? AND start_epoch < ? AND end_epoch IS NOT NULL",
+                rs -> {
+                    int year = Instant.ofEpochSecond(rs.getLong("start_epoch")).atZone(ZoneOffset.UTC).getYear();
+                    idsByYear.computeIfAbsent(year, key -> new ArrayList<>()).add(new Object[]{rs.getLong("id")});
+                    userIds.add(rs.getLong("user_id"));
+                },
+                firstUserId, lastUserId, cutoffEpoch);
+        if (idsByYear.isEmpty()) {
+            return 0;
+        }
+
+        long moved = 0;
+        for (Map.Entry<Integer, List<Object[]>> entry : idsByYear.entrySet()) {
+            moved += transactionTemplate.execute(status -> moveYear(entry.getKey(), entry.getValue()));
+        }
+        reloadManifest();
+
+        jdbcTemplate.query("SELECT id, username FROM user WHERE id BETWEEN ? AND ?", rs -> {
+            if (userIds.contains(rs.getLong("id"))) {
+                timelineCache.invalidate(rs.getLong("id"));
+                userWriteVersions.bump(rs.getString("username"));
+            }
+        }, firstUserId, lastUserId);
+        return moved;
+    }
+
+    private long moveYear(int year, List<Object[]> ids) {
+        String table = PARTITION_PREFIX + year;
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " (id INTEGER PRIMARY KEY, " +
+                "user_id INTEGER NOT NULL, start_epoch INTEGER NOT NULL, end_epoch INTEGER, notes TEXT, " +
+                "change_version INTEGER, version INTEGER NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_user_start ON " + table + " (user_id, start_epoch)");
+
+        // Copied and deleted in the same transaction, so concurrent edits are either moved along or refused
+        jdbcTemplate.batchUpdate("INSERT OR REPLACE INTO " + table + " (" + COLUMNS + ") " +
+                "SELECT " + COLUMNS + " FROM work_session WHERE id = ?", ids);
+        int[] deleted = jdbcTemplate.batchUpdate("DELETE FROM work_session WHERE id = ?", ids);
+        long moved = 0;
+        for (int count : deleted) {
+            moved += count;
+        }
+
+        jdbcTemplate.update("INSERT INTO " + MANIFEST_TABLE +
+                        " (year, table_name, session_count, min_start_epoch, max_start_epoch) " +
+                        "SELECT ?, ?, COUNT(*), MIN(start_epoch), MAX(start_epoch) FROM " + table + " WHERE true " +
+                        "ON CONFLICT (year) DO UPDATE SET session_count = excluded.session_count, " +
+                        "min_start_epoch = excluded.min_start_epoch, max_start_epoch = excluded.max_start_epoch",
+                year, table);
+        return moved;
+    }
+
+    private void reloadManifest() {
+        partitions = jdbcTemplate.query(
+                        "SELECT year, table_name, session_count, min_start_epoch, max_start_epoch FROM " + MANIFEST_TABLE,
+                        (rs, rowNum) -> new Partition(rs.getInt("year"), rs.getString("table_name"),
+                                rs.getLong("session_count"), rs.getLong("min_start_epoch"), rs.getLong("max_start_epoch")))
+                .stream()
+                .sorted(Comparator.comparingLong(Partition::maxStart))
+                .toList();
+    }
+
+    private static WorkSession toSession(User user, ResultSet rs) throws SQLException {
+        WorkSession session = new WorkSession();
+        session.setId(rs.getLong("id"));
+        session.setUser(user);
+        session.setStartTime(Instant.ofEpochSecond(rs.getLong("start_epoch")));
+        long end = rs.getLong("end_epoch");
+        session.setEndTime(rs.wasNull() ? null : Instant.ofEpochSecond(end));
+        session.setNotes(rs.getString("notes"));
+        long changeVersion = rs.getLong("change_version");
+        session.setChangeVersion(rs.wasNull() ? null : changeVersion);
+        session.setVersion(rs.getLong("version"));
+        return session;
+    }
+
+    private record Partition(int year, String tableName, long sessionCount, long minStart, long maxStart) {
+    }
+}
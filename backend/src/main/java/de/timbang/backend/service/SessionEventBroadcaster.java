@@ -0,0 +1,77 @@
+package de.timbang.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Server-sent event streams of connected clients, per user. Events only say that
+ * sessions changed and from which change version; clients fetch the sessions
+ * themselves through {@code /work/changes}.
+ */
+@Component
+public class SessionEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionEventBroadcaster.class);
+
+    private final long timeoutMillis;
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    public SessionEventBroadcaster(@Value("${app.session-events.timeout:30m}") Duration timeout) {
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public SseEmitter subscribe(String username) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitters.compute(username, (key, userEmitters) -> {
+            List<SseEmitter> updated = userEmitters != null ? userEmitters : new CopyOnWriteArrayList<>();
+            updated.add(emitter);
+            return updated;
+        });
+        Runnable remove = () -> remove(username, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    @EventListener
+    public void onSessionsAutoClosed(SessionsAutoClosedEvent event) {
+        List<SseEmitter> userEmitters = emitters.get(event.username());
+        if (userEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : userEmitters) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("sessions-auto-closed")
+                        .data(event));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping session event stream of {}", event.username(), e);
+                remove(event.username(), emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    public int getConnectedClients() {
+        return emitters.values().stream().mapToInt(List::size).sum();
+    }
+
+    private void remove(String username, SseEmitter emitter) {
+        emitters.computeIfPresent(username, (key, userEmitters) -> {
+            userEmitters.remove(emitter);
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+    }
+}
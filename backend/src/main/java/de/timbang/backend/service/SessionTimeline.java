@@ -0,0 +1,239 @@
+package de.timbang.backend.service;
+
+import de.timbang.backend.model.User;
+import de.timbang.backend.model.WorkSession;
+import de.timbang.backend.model.dto.response.CompactWorkSessionsResponse;
+import de.timbang.backend.model.dto.response.WorkSessionResponse;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable snapshot of one user's sessions held as parallel arrays sorted by start
+ * time. Range lookups are binary searches; mutations return a new snapshot, so
+ * readers never need a lock.
+ */
+public final class SessionTimeline {
+
+    static final long OPEN = Long.MIN_VALUE;
+
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final long STRING_OVERHEAD_BYTES = 56;
+
+    private final long[] ids;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] versions;
+    private final String[] notes;
+    private final long estimatedBytes;
+
+    private SessionTimeline(long[] ids, long[] starts, long[] ends, long[] versions, String[] notes) {
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.versions = versions;
+        this.notes = notes;
+        this.estimatedBytes = estimateBytes();
+    }
+
+    static SessionTimeline of(List<WorkSession> sessions) {
+        List<WorkSession> sorted = new ArrayList<>(sessions);
+        sorted.sort(Comparator.comparing(WorkSession::getStartTime).thenComparing(WorkSession::getId));
+
+        int size = sorted.size();
+        long[] ids = new long[size];
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        long[] versions = new long[size];
+        String[] notes = new String[size];
+        for (int i = 0; i < size; i++) {
+            WorkSession session = sorted.get(i);
+            ids[i] = session.getId();
+            starts[i] = session.getStartTime().getEpochSecond();
+            ends[i] = session.getEndTime() != null ? session.getEndTime().getEpochSecond() : OPEN;
+            versions[i] = session.getVersion();
+            notes[i] = session.getNotes();
+        }
+        return new SessionTimeline(ids, starts, ends, versions, notes);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Sessions starting within [start, end] (both inclusive, like the repository's "Between"), ordered by id.
+     */
+    public List<WorkSessionResponse> between(User user, Instant start, Instant end) {
+        int from = lowerBound(start.getEpochSecond());
+        int to = lowerBound(end.getEpochSecond() + 1);
+        return toResponses(user, orderedById(from, to));
+    }
+
+    public List<WorkSessionResponse> all(User user) {
+        return toResponses(user, orderedById(0, ids.length));
+    }
+
+    /**
+     * One page of sessions, newest start time first.
+     */
+    public List<WorkSessionResponse> pageByStartDescending(User user, int page, int pageSize) {
+        long hi = ids.length - (long) page * pageSize;
+        if (page < 0 || hi <= 0) {
+            return List.of();
+        }
+        int lo = (int) Math.max(0, hi - pageSize);
+        int[] indices = new int[(int) hi - lo];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = (int) hi - 1 - i;
+        }
+        return toResponses(user, indices);
+    }
+
+    public CompactWorkSessionsResponse toCompact(User user, Instant start, Instant end) {
+        int from = start != null ? lowerBound(start.getEpochSecond()) : 0;
+        int to = end != null ? lowerBound(end.getEpochSecond() + 1) : ids.length;
+        int[] indices = orderedById(from, to);
+
+        long[] compactIds = new long[indices.length];
+        long[] compactStarts = new long[indices.length];
+        long[] durations = new long[indices.length];
+        String[] compactNotes = new String[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            int index = indices[i];
+            compactIds[i] = ids[index];
+            compactStarts[i] = starts[index];
+            durations[i] = ends[index] != OPEN ? ends[index] - starts[index] : -1;
+            compactNotes[i] = notes[index];
+        }
+        return new CompactWorkSessionsResponse(user.getUsername(), user.zone().getId(),
+                compactIds, compactStarts, durations, compactNotes);
+    }
+
+    SessionTimeline withUpserted(WorkSession session) {
+        SessionTimeline without = without(session.getId());
+        long start = session.getStartTime().getEpochSecond();
+        int insertAt = without.upperBound(start);
+        int size = without.ids.length;
+
+        long[] newIds = insert(without.ids, insertAt, session.getId());
+        long[] newStarts = insert(without.starts, insertAt, start);
+        long[] newEnds = insert(without.ends, insertAt,
+                session.getEndTime() != null ? session.getEndTime().getEpochSecond() : OPEN);
+        long[] newVersions = insert(without.versions, insertAt, session.getVersion());
+        String[] newNotes = new String[size + 1];
+        System.arraycopy(without.notes, 0, newNotes, 0, insertAt);
+        newNotes[insertAt] = session.getNotes();
+        System.arraycopy(without.notes, insertAt, newNotes, insertAt + 1, size - insertAt);
+
+        return new SessionTimeline(newIds, newStarts, newEnds, newVersions, newNotes);
+    }
+
+    SessionTimeline without(long sessionId) {
+        int index = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == sessionId) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return this;
+        }
+        String[] newNotes = new String[notes.length - 1];
+        System.arraycopy(notes, 0, newNotes, 0, index);
+        System.arraycopy(notes, index + 1, newNotes, index, notes.length - index - 1);
+        return new SessionTimeline(remove(ids, index), remove(starts, index), remove(ends, index),
+                remove(versions, index), newNotes);
+    }
+
+    // First index whose start is >= epochSecond
+    private int lowerBound(long epochSecond) {
+        int lo = 0;
+        int hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] < epochSecond) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First index whose start is > epochSecond
+    private int upperBound(long epochSecond) {
+        return lowerBound(epochSecond + 1);
+    }
+
+    // Ids grow with start time almost always, so this is usually a plain copy of the range
+    private int[] orderedById(int from, int to) {
+        int[] indices = new int[Math.max(0, to - from)];
+        boolean sorted = true;
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = from + i;
+            if (i > 0 && ids[from + i] < ids[from + i - 1]) {
+                sorted = false;
+            }
+        }
+        if (!sorted) {
+            indices = Arrays.stream(indices)
+                    .boxed()
+                    .sorted(Comparator.comparingLong(index -> ids[index]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        return indices;
+    }
+
+    private List<WorkSessionResponse> toResponses(User user, int[] indices) {
+        ZoneId zone = user.zone();
+        List<WorkSessionResponse> responses = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            responses.add(new WorkSessionResponse(
+                    ids[index],
+                    user.getUsername(),
+                    LocalDateTime.ofInstant(Instant.ofEpochSecond(starts[index]), zone),
+                    ends[index] != OPEN ? LocalDateTime.ofInstant(Instant.ofEpochSecond(ends[index]), zone) : null,
+                    notes[index],
+                    versions[index]
+            ));
+        }
+        return responses;
+    }
+
+    private long estimateBytes() {
+        long bytes = 4 * (ARRAY_HEADER_BYTES + 8L * ids.length) + ARRAY_HEADER_BYTES + 4L * notes.length;
+        for (String note : notes) {
+            if (note != null) {
+                bytes += STRING_OVERHEAD_BYTES + note.length();
+            }
+        }
+        return bytes;
+    }
+
+    private static long[] insert(long[] source, int index, long value) {
+        long[] target = new long[source.length + 1];
+        System.arraycopy(source, 0, target, 0, index);
+        target[index] = value;
+        System.arraycopy(source, index, target, index + 1, source.length - index);
+        return target;
+    }
+
+    private static long[] remove(long[] source, int index) {
+        long[] target = new long[source.length - 1];
+        System.arraycopy(source, 0, target, 0, index);
+        System.arraycopy(source, index + 1, target, index, source.length - index - 1);
+        return target;
+    }
+}
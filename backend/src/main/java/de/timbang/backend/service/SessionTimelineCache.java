@@ -0,0 +1,109 @@
+package de.timbang.backend.service;
+
+import de.timbang.backend.model.User;
+import de.timbang.backend.model.WorkSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Keeps recently used users' sessions in memory as {@link SessionTimeline}s.
+ * <p>
+ * The cache is bounded by the estimated size of all timelines and evicts the least
+ * recently used user first. {@link WorkService} writes through every mutation, a
+ * timeline loaded while a write was in flight is returned but not cached, so a stale
+ * snapshot can never stick.
+ */
+@Component
+public class SessionTimelineCache {
+
+    private final boolean enabled;
+    private final long maxBytes;
+
+    private final LinkedHashMap<Long, SessionTimeline> timelines = new LinkedHashMap<>(64, 0.75f, true);
+    private long usedBytes;
+    private long writeEpoch;
+
+    public SessionTimelineCache(
+            @Value("${app.timeline-cache.enabled:true}") boolean enabled,
+            @Value("${app.timeline-cache.max-bytes:67108864}") long maxBytes) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SessionTimeline get(User user, Supplier<List<WorkSession>> loader) {
+        long epoch;
+        synchronized (this) {
+            SessionTimeline cached = timelines.get(user.getId());
+            if (cached != null) {
+                return cached;
+            }
+            epoch = writeEpoch;
+        }
+
+        SessionTimeline loaded = SessionTimeline.of(loader.get());
+
+        synchronized (this) {
+            if (epoch == writeEpoch && loaded.estimatedBytes() <= maxBytes) {
+                put(user.getId(), loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public synchronized void upsert(WorkSession session) {
+        writeEpoch++;
+        SessionTimeline cached = timelines.get(session.getUser().getId());
+        if (cached != null) {
+            put(session.getUser().getId(), cached.withUpserted(session));
+        }
+    }
+
+    public synchronized void remove(Long userId, Long sessionId) {
+        writeEpoch++;
+        SessionTimeline cached = timelines.get(userId);
+        if (cached != null) {
+            put(userId, cached.without(sessionId));
+        }
+    }
+
+    public synchronized void invalidate(Long userId) {
+        writeEpoch++;
+        SessionTimeline removed = timelines.remove(userId);
+        if (removed != null) {
+            usedBytes -= removed.estimatedBytes();
+        }
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int getCachedUsers() {
+        return timelines.size();
+    }
+
+    private void put(Long userId, SessionTimeline timeline) {
+        SessionTimeline previous = timelines.put(userId, timeline);
+        if (previous != null) {
+            usedBytes -= previous.estimatedBytes();
+        }
+        usedBytes += timeline.estimatedBytes();
+
+        Iterator<Map.Entry<Long, SessionTimeline>> eldest = timelines.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Long, SessionTimeline> entry = eldest.next();
+            usedBytes -= entry.getValue().estimatedBytes();
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package de.timbang.backend.service;
+
+import java.util.List;
+
+/**
+ * Published after {@link OpenSessionAutoCloser} closed sessions of one user; the
+ * changes are visible through {@code /work/changes} from {@code changeVersion} on.
+ */
+public record SessionsAutoClosedEvent(String username, List<Long> sessionIds, long changeVersion) {
+}
@@ -0,0 +1,26 @@
+package de.timbang.backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user counter bumped after every committed write that changes what the user's
+ * session reads return. Caches remember the counter they were filled at and treat
+ * any other value as stale.
+ */
+@Component
+public class UserWriteVersions {
+
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public long current(String username) {
+        AtomicLong version = versions.get(username);
+        return version != null ? version.get() : 0;
+    }
+
+    public void bump(String username) {
+        versions.computeIfAbsent(username, key -> new AtomicLong()).incrementAndGet();
+    }
+}
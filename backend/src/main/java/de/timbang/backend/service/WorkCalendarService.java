@@ -0,0 +1,167 @@
+package de.timbang.backend.service;
+
+import de.timbang.backend.exception.BadRequestException;
+import de.timbang.backend.model.Holiday;
+import de.timbang.backend.model.State;
+import de.timbang.backend.model.WorkConfig;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Answers "how many working days / expected hours lie in a date range" for a
+ * {@link WorkConfig}. Each (state, work day mask, year) combination is turned
+ * into a day-of-year bitmap with prefix sums once, so a range query is two
+ * array lookups per calendar year touched.
+ */
+@Service
+public class WorkCalendarService {
+
+    private static final int MAX_CACHED_CALENDARS = 512;
+    private static final String DEFAULT_WORK_DAYS = "1,2,3,4,5";
+
+    private final HolidayService holidayService;
+
+    private final Map<CalendarKey, YearCalendar> calendars = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CalendarKey, YearCalendar> eldest) {
+            return size() > MAX_CACHED_CALENDARS;
+        }
+    };
+    // Bumped on every clear, a calendar built from holidays read before it is not cached
+    private long generation;
+
+    public WorkCalendarService(HolidayService holidayService) {
+        this.holidayService = holidayService;
+    }
+
+    public int countWorkingDays(WorkConfig config, LocalDate start, LocalDate end) {
+        if (start == null || end == null || end.isBefore(start)) {
+            return 0;
+        }
+
+        int mask = parseWorkDays(config.getWorkDays());
+        State holidayState = config.isShowHoliday() ? config.getState() : null;
+
+        int workingDays = 0;
+        for (int year = start.getYear(); year <= end.getYear(); year++) {
+            YearCalendar calendar = getCalendar(new CalendarKey(holidayState, mask, year));
+            int fromDay = year == start.getYear() ? start.getDayOfYear() : 1;
+            int toDay = year == end.getYear() ? end.getDayOfYear() : calendar.length();
+            workingDays += calendar.count(fromDay, toDay);
+        }
+        return workingDays;
+    }
+
+    public double getExpectedHours(WorkConfig config, LocalDate start, LocalDate end) {
+        return countWorkingDays(config, start, end) * getDailyHours(config);
+    }
+
+    public double getDailyHours(WorkConfig config) {
+        int daysPerWeek = Integer.bitCount(parseWorkDays(config.getWorkDays()));
+        if (daysPerWeek == 0 || config.getExpectedWeeklyHours() == null) {
+            return 0;
+        }
+        return config.getExpectedWeeklyHours() / (double) daysPerWeek;
+    }
+
+    @EventListener(HolidaysImportedEvent.class)
+    public void onHolidaysImported() {
+        synchronized (calendars) {
+            calendars.clear();
+            generation++;
+        }
+    }
+
+    // Built outside the lock, loading holidays must not block lookups of other calendars
+    private YearCalendar getCalendar(CalendarKey key) {
+        long builtAt;
+        synchronized (calendars) {
+            YearCalendar cached = calendars.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            builtAt = generation;
+        }
+
+        YearCalendar calendar = buildCalendar(key);
+        synchronized (calendars) {
+            if (generation == builtAt) {
+                calendars.put(key, calendar);
+            }
+        }
+        return calendar;
+    }
+
+    private YearCalendar buildCalendar(CalendarKey key) {
+        LocalDate firstDay = LocalDate.of(key.year(), 1, 1);
+        int length = firstDay.lengthOfYear();
+        long[] bits = new long[(length >> 6) + 1];
+
+        // Jan 1st has ISO day-of-week 1..7, walk the week without touching LocalDate per day
+        int dayOfWeek = firstDay.getDayOfWeek().getValue();
+        for (int day = 1; day <= length; day++) {
+            if ((key.workDayMask() & (1 << dayOfWeek)) != 0) {
+                bits[day >> 6] |= 1L << day;
+            }
+            dayOfWeek = dayOfWeek == 7 ? 1 : dayOfWeek + 1;
+        }
+
+        if (key.holidayState() != null) {
+            for (Holiday holiday : holidayService.getHolidaysByState(key.holidayState())) {
+                LocalDate date = holiday.getDate();
+                if (date != null && date.getYear() == key.year()) {
+                    int day = date.getDayOfYear();
+                    bits[day >> 6] &= ~(1L << day);
+                }
+            }
+        }
+
+        int[] prefix = new int[length + 1];
+        for (int day = 1; day <= length; day++) {
+            prefix[day] = prefix[day - 1] + (int) ((bits[day >> 6] >>> day) & 1L);
+        }
+        return new YearCalendar(prefix);
+    }
+
+    static int parseWorkDays(String workDays) {
+        String value = workDays == null || workDays.isBlank() ? DEFAULT_WORK_DAYS : workDays;
+        int mask = 0;
+        for (String part : value.split(",")) {
+            String trimmed = part.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int day;
+            try {
+                day = Integer.parseInt(trimmed);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Work days must be comma separated day numbers", workDays);
+            }
+            if (day >= 1 && day <= 7) {
+                mask |= 1 << day;
+            }
+        }
+        return mask;
+    }
+
+    private record CalendarKey(State holidayState, int workDayMask, int year) {
+    }
+
+    /**
+     * prefix[d] holds the number of working days from Jan 1st up to and including day-of-year d.
+     */
+    private record YearCalendar(int[] prefix) {
+
+        int length() {
+            return prefix.length - 1;
+        }
+
+        int count(int fromDay, int toDay) {
+            return prefix[toDay] - prefix[fromDay - 1];
+        }
+    }
+}
@@ -1,127 +1,287 @@
 package de.timbang.backend.service;
 
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import de.timbang.backend.audit.SessionAuditLog;
+import de.timbang.backend.exception.BadRequestException;
+import de.timbang.backend.exception.ConflictException;
+import de.timbang.backend.exception.NotFoundException;
 import de.timbang.backend.model.*;
 import de.timbang.backend.model.dto.response.WorkSessionResponse;
 import de.timbang.backend.repository.WorkSessionRepository;
+import de.timbang.backend.repository.WorkSessionTombstoneRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import de.timbang.backend.model.WorkEntry.EntryType;
 import de.timbang.backend.model.dto.request.ClockEntryRequest;
 import de.timbang.backend.model.dto.request.EditWorkEntryRequest;
 import de.timbang.backend.model.dto.request.ManualWorkEntryRequest;
 import de.timbang.backend.model.dto.request.WorkConfigRequest;
+import de.timbang.backend.model.dto.response.CompactWorkSessionsResponse;
+import de.timbang.backend.model.dto.response.ExpectedHoursResponse;
+import de.timbang.backend.model.dto.response.SessionAuditResponse;
+import de.timbang.backend.model.dto.response.SessionChangesResponse;
 import de.timbang.backend.model.dto.response.WorkConfigResponse;
-import de.timbang.backend.model.dto.response.WorkEntryResponse;
 import de.timbang.backend.repository.UserRepository;
 import de.timbang.backend.repository.WorkConfigRepository;
-import de.timbang.backend.repository.WorkEntryRepository;
 
 @Service
 public class WorkService {
 
-    private final WorkEntryRepository workEntryRepository;
-
     private final WorkSessionRepository workSessionRepository;
 
     private final WorkConfigRepository workConfigRepository;
 
     private final UserRepository userRepository;
 
+    private final WorkSessionTombstoneRepository tombstoneRepository;
+
+    private final WorkCalendarService workCalendarService;
+
+    private final ChangeVersionService changeVersionService;
+
+    private final SessionTimelineCache timelineCache;
+
+    private final EntityCacheEvictor entityCacheEvictor;
+
+    private final UserWriteVersions userWriteVersions;
+
+    private final SessionArchiveService sessionArchive;
+
+    private final SessionAuditLog sessionAuditLog;
+
+
+    private final SingleFlight<EntriesKey, Object> entriesLoads = new SingleFlight<>();
+
+    private final SingleFlight<ConfigKey, WorkConfigResponse> configLoads = new SingleFlight<>();
+
     private static final int PAGE_SIZE = 10;
+    private static final int SEARCH_PAGE_SIZE = 50;
 
-    public WorkService(WorkEntryRepository workEntryRepository, WorkSessionRepository workSessionRepository, WorkConfigRepository workConfigRepository, UserRepository userRepository) {
-        this.workEntryRepository = workEntryRepository;
+    public WorkService(WorkSessionRepository workSessionRepository, WorkConfigRepository workConfigRepository, UserRepository userRepository, WorkSessionTombstoneRepository tombstoneRepository, WorkCalendarService workCalendarService, ChangeVersionService changeVersionService, SessionTimelineCache timelineCache, EntityCacheEvictor entityCacheEvictor, UserWriteVersions userWriteVersions, SessionArchiveService sessionArchive, SessionAuditLog sessionAuditLog) {
         this.workSessionRepository = workSessionRepository;
         this.workConfigRepository = workConfigRepository;
         this.userRepository = userRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.workCalendarService = workCalendarService;
+        this.changeVersionService = changeVersionService;
+        this.timelineCache = timelineCache;
+        this.entityCacheEvictor = entityCacheEvictor;
+        this.userWriteVersions = userWriteVersions;
+        this.sessionArchive = sessionArchive;
+        this.sessionAuditLog = sessionAuditLog;
     }
 
     public WorkSessionResponse clockIn(String username, ClockEntryRequest request) {
         User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
 
-        LocalDateTime timestamp = request.timestamp() != null ? request.timestamp() : LocalDateTime.now();
-
-        // Prevent future timestamps
-        if (timestamp.isAfter(LocalDateTime.now())) {
-            throw new RuntimeException("Cannot create entries with future timestamps");
-        }
+        Instant timestamp = resolveTimestamp(user, request);
 
         WorkSession entry = new WorkSession();
         entry.setUser(user);
         entry.setStartTime(timestamp);
-        entry.setNotes(request.notes());
+        entry.setNotes(request != null ? request.notes() : null);
 
-        return WorkSessionResponse.fromEntity(workSessionRepository.save(entry));
+        return WorkSessionResponse.fromEntity(saveVersioned(entry));
     }
 
     public WorkSessionResponse clockOut(String username, Long clockInId, ClockEntryRequest request) {
         User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
 
-        LocalDateTime timestamp = request.timestamp() != null ? request.timestamp() : LocalDateTime.now();
-
-        // Prevent future timestamps
-        if (timestamp.isAfter(LocalDateTime.now())) {
-            throw new RuntimeException("Cannot create entries with future timestamps");
-        }
+        Instant timestamp = resolveTimestamp(user, request);
 
         WorkSession workSession = workSessionRepository.findByIdAndUser(clockInId, user)
-                .orElseThrow(() -> new RuntimeException("Clock-in entry not found"));
+                .orElseThrow(() -> new NotFoundException("Clock-in entry not found"));
 
         if (workSession.getStartTime().isAfter(timestamp)) {
-            throw new RuntimeException("Clock-out time must be after clock-in time (" +
-                    workSession.getStartTime() + ")");
+            throw new BadRequestException("Clock-out time must be after clock-in time",
+                    LocalDateTime.ofInstant(workSession.getStartTime(), user.zone()));
         }
 
         workSession.setEndTime(timestamp);
 
-        return WorkSessionResponse.fromEntity(workSessionRepository.save(workSession));
+        return WorkSessionResponse.fromEntity(saveVersioned(workSession));
     }
 
+    @SuppressWarnings("unchecked")
     public List<WorkSessionResponse> getEntries(String username, LocalDateTime start, LocalDateTime end) {
+        return (List<WorkSessionResponse>) entriesLoads.execute(new EntriesKey(username, start, end, false, userWriteVersions.current(username)),
+                () -> loadEntries(username, start, end));
+    }
+
+    private List<WorkSessionResponse> loadEntries(String username, LocalDateTime start, LocalDateTime end) {
         User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        if (needsArchive(user, start, end)) {
+            return withArchived(user, start, end).stream()
+                    .map(WorkSessionResponse::fromEntity)
+                    .toList();
+        }
+
+        if (timelineCache.isEnabled()) {
+            SessionTimeline timeline = getTimeline(user);
+            return start != null && end != null
+                    ? timeline.between(user, start.atZone(user.zone()).toInstant(), end.atZone(user.zone()).toInstant())
+                    : timeline.all(user);
+        }
 
-        List<WorkSession> entries;
+        return findSessions(user, start, end).stream()
+                .map(WorkSessionResponse::fromEntity)
+                .toList();
+    }
+
+    public CompactWorkSessionsResponse getCompactEntries(String username, LocalDateTime start, LocalDateTime end) {
+        return (CompactWorkSessionsResponse) entriesLoads.execute(new EntriesKey(username, start, end, true, userWriteVersions.current(username)),
+                () -> loadCompactEntries(username, start, end));
+    }
+
+    private CompactWorkSessionsResponse loadCompactEntries(String username, LocalDateTime start, LocalDateTime end) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        if (needsArchive(user, start, end)) {
+            return CompactWorkSessionsResponse.fromEntities(user.getUsername(), user.zone().getId(),
+                    withArchived(user, start, end));
+        }
+
+        if (timelineCache.isEnabled()) {
+            boolean ranged = start != null && end != null;
+            return getTimeline(user).toCompact(user,
+                    ranged ? start.atZone(user.zone()).toInstant() : null,
+                    ranged ? end.atZone(user.zone()).toInstant() : null);
+        }
+
+        return CompactWorkSessionsResponse.fromEntities(user.getUsername(), user.zone().getId(),
+                findSessions(user, start, end));
+    }
+
+    private boolean needsArchive(User user, LocalDateTime start, LocalDateTime end) {
+        return sessionArchive.covers(start != null && end != null ? start.atZone(user.zone()).toEpochSecond() : null);
+    }
+
+    // Hot and archived sessions of the range, ordered by id like the hot-only reads
+    private List<WorkSession> withArchived(User user, LocalDateTime start, LocalDateTime end) {
+        boolean ranged = start != null && end != null;
+        List<WorkSession> sessions = new ArrayList<>(findSessions(user, start, end));
+        sessions.addAll(sessionArchive.find(user,
+                ranged ? start.atZone(user.zone()).toEpochSecond() : null,
+                ranged ? end.atZone(user.zone()).toEpochSecond() : null));
+        sessions.sort(Comparator.comparing(WorkSession::getId));
+        return sessions;
+    }
+
+    private SessionTimeline getTimeline(User user) {
+        return timelineCache.get(user, () -> workSessionRepository.findByUserOrderById(user));
+    }
+
+    private List<WorkSession> findSessions(User user, LocalDateTime start, LocalDateTime end) {
         if (start != null && end != null) {
-            entries = workSessionRepository.findByUserAndStartTimeBetweenOrderById(user, start, end);
-        } else {
-            entries = workSessionRepository.findByUserOrderById(user);
+            ZoneId zone = user.zone();
+            return workSessionRepository.findByUserAndStartTimeBetweenOrderById(user,
+                    start.atZone(zone).toInstant(), end.atZone(zone).toInstant());
+        }
+        return workSessionRepository.findByUserOrderById(user);
+    }
+
+    public SessionChangesResponse getChangesSince(String username, long since) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        // Read the token first: anything committed later is picked up by the next sync at the latest
+        long token = changeVersionService.getCurrentVersion();
+
+        if (since <= 0) {
+            List<WorkSessionResponse> all = workSessionRepository.findByUserOrderById(user)
+                    .stream()
+                    .map(WorkSessionResponse::fromEntity)
+                    .toList();
+            return new SessionChangesResponse(all, List.of(), token);
         }
 
-        return entries.stream()
+        List<WorkSessionResponse> changed = workSessionRepository
+                .findByUserAndChangeVersionGreaterThanOrderByChangeVersion(user, since)
+                .stream()
                 .map(WorkSessionResponse::fromEntity)
                 .toList();
+        // Ids reused before work_session had AUTOINCREMENT: the live session is the later one
+        Set<Long> changedIds = changed.stream().map(WorkSessionResponse::id).collect(Collectors.toSet());
+        List<Long> deleted = tombstoneRepository
+                .findByUserAndChangeVersionGreaterThanOrderByChangeVersion(user, since)
+                .stream()
+                .map(WorkSessionTombstone::getSessionId)
+                .filter(sessionId -> !changedIds.contains(sessionId))
+                .toList();
+
+        return new SessionChangesResponse(changed, deleted, token);
     }
 
     public WorkConfigResponse getConfig(String username) {
+        // Also keeps concurrent first calls from creating two default configs
+        return configLoads.execute(new ConfigKey(username, userWriteVersions.current(username)), () -> {
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new NotFoundException("User not found"));
+
+            return WorkConfigResponse.fromEntity(findOrCreateConfig(user));
+        });
+    }
+
+    public ExpectedHoursResponse getExpectedHours(String username, LocalDate start, LocalDate end) {
         User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
 
-        WorkConfig config = workConfigRepository.findByUser(user)
-                .orElseGet(() -> {
-                    // Create default config if none exists
-                    WorkConfig newConfig = new WorkConfig();
-                    newConfig.setUser(user);
-                    newConfig.setExpectedWeeklyHours(40);
-                    newConfig.setExpectedMonthlyHours(160);
-                    newConfig.setTrackLunchBreak(true);
-                    newConfig.setDefaultLunchBreakMinutes(60);
-                    newConfig.setWorkDays("1,2,3,4,5"); // Monday to Friday
-                    return workConfigRepository.save(newConfig);
-                });
+        if (start == null || end == null || end.isBefore(start)) {
+            throw new BadRequestException("A valid date range is required");
+        }
+
+        WorkConfig config = findOrCreateConfig(user);
+        int workingDays = workCalendarService.countWorkingDays(config, start, end);
+        double expectedHours = workingDays * workCalendarService.getDailyHours(config);
+
+        ZoneId zone = user.zone();
+        long workedSeconds = workSessionRepository.sumClosedDurationSeconds(user.getId(),
+                start.atStartOfDay(zone).toEpochSecond(),
+                end.plusDays(1).atStartOfDay(zone).toEpochSecond());
+
+        return new ExpectedHoursResponse(start, end, workingDays, expectedHours, workedSeconds / 3600.0);
+    }
+
+    public WorkConfig findOrCreateConfig(User user) {
+        return workConfigRepository.findByUser(user)
+                .orElseGet(() -> workConfigRepository.save(defaultConfig(user)));
+    }
+
+    // For reads that must not write: the stored config or an unsaved default
+    public WorkConfig findConfigOrDefault(User user) {
+        return workConfigRepository.findByUser(user)
+                .orElseGet(() -> defaultConfig(user));
+    }
 
-        return WorkConfigResponse.fromEntity(config);
+    private static WorkConfig defaultConfig(User user) {
+        WorkConfig newConfig = new WorkConfig();
+        newConfig.setUser(user);
+        newConfig.setExpectedWeeklyHours(40);
+        newConfig.setExpectedMonthlyHours(160);
+        newConfig.setTrackLunchBreak(true);
+        newConfig.setDefaultLunchBreakMinutes(60);
+        newConfig.setWorkDays("1,2,3,4,5"); // Monday to Friday
+        return newConfig;
     }
 
     public WorkConfigResponse updateConfig(String username, WorkConfigRequest request) {
         User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
 
         WorkConfig config = workConfigRepository.findByUser(user)
                 .orElseGet(() -> {
@@ -134,63 +294,230 @@ public class WorkService {
         config.setExpectedMonthlyHours(request.expectedMonthlyHours());
         config.setTrackLunchBreak(request.trackLunchBreak());
         config.setDefaultLunchBreakMinutes(request.defaultLunchBreakMinutes());
+        // Parsed once here so a malformed value is rejected instead of stored
+        WorkCalendarService.parseWorkDays(request.workDays());
         config.setWorkDays(request.workDays());
-        config.setState(State.valueOf(request.state()));
+        config.setState(parseState(request.state()));
         config.setShowHoliday(request.showHolidays());
 
-        return WorkConfigResponse.fromEntity(workConfigRepository.save(config));
+        if (request.zoneId() != null && !request.zoneId().equals(user.getZoneId())) {
+            user.setZoneId(parseZone(request.zoneId()).getId());
+            userRepository.save(user);
+        }
+
+        WorkConfig saved = workConfigRepository.save(config);
+        entityCacheEvictor.evictWorkConfig(saved.getId());
+        // Session responses are rendered in the user's zone, and in-flight config reads must not be joined
+        userWriteVersions.bump(user.getUsername());
+
+        return WorkConfigResponse.fromEntity(saved);
+    }
+
+    private static State parseState(String state) {
+        if (state == null) {
+            throw new BadRequestException("State is required");
+        }
+        try {
+            return State.valueOf(state);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown state", state);
+        }
+    }
+
+    private static ZoneId parseZone(String zoneId) {
+        try {
+            return ZoneId.of(zoneId);
+        } catch (DateTimeException e) {
+            throw new BadRequestException("Unknown time zone", zoneId);
+        }
     }
 
     public void deleteWorkEntryPair(String username, Long clockInId) {
         User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
 
         WorkSession workSession = workSessionRepository.findByIdAndUser(clockInId, user)
-                .orElseThrow(() -> new RuntimeException("Work session not found"));
-
-        workSessionRepository.delete(workSession);
+                .orElseThrow(() -> new NotFoundException("Work session not found"));
+        SessionAudit audit = SessionAuditLog.capture(SessionAudit.Action.DELETE, workSession, username);
+
+        // A session is never gone without the tombstone that tells delta sync clients
+        WorkSessionTombstone deleted = changeVersionService.writeVersioned(version -> {
+            workSessionRepository.delete(workSession);
+
+            WorkSessionTombstone created = new WorkSessionTombstone();
+            created.setUser(user);
+            created.setSessionId(workSession.getId());
+            created.setChangeVersion(version);
+            created.setDeletedAt(LocalDateTime.now());
+            return tombstoneRepository.save(created);
+        });
+        timelineCache.remove(user.getId(), workSession.getId());
+        userWriteVersions.bump(user.getUsername());
+        sessionAuditLog.recordDelete(audit, deleted.getChangeVersion());
     }
 
     public WorkSessionResponse editWorkEntry(String username, Long entryId, EditWorkEntryRequest request) {
         User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
 
         WorkSession entry = workSessionRepository.findByIdAndUser(entryId, user)
-                .orElseThrow(() -> new RuntimeException("Work entry not found"));
+                .orElseThrow(() -> new NotFoundException("Work entry not found"));
 
-        // Validate timestamp order
-        if (entry.getEndTime() != null && entry.getStartTime().isAfter(entry.getEndTime())) {
-            throw new RuntimeException("Start time must be before end time");
+        // The client edited a copy it read earlier, refuse to overwrite a newer state
+        if (request.expectedVersion() != null && request.expectedVersion() != entry.getVersion()) {
+            throw new ConflictException("Work session was modified concurrently");
         }
+        SessionAudit audit = SessionAuditLog.capture(SessionAudit.Action.EDIT, entry, username);
 
         // Update the entry
+        ZoneId zone = user.zone();
         if (request.newStartTime() != null) {
-            entry.setStartTime(request.newStartTime());
+            entry.setStartTime(request.newStartTime().atZone(zone).toInstant());
         }
 
         if (request.newEndTime() != null) {
-            entry.setEndTime(request.newEndTime());
+            entry.setEndTime(request.newEndTime().atZone(zone).toInstant());
         }
 
         if (request.notes() != null) {
             entry.setNotes(request.notes());
         }
 
-        return WorkSessionResponse.fromEntity(workSessionRepository.save(entry));
+        // Validate timestamp order
+        if (entry.getEndTime() != null && entry.getStartTime().isAfter(entry.getEndTime())) {
+            throw new BadRequestException("Start time must be before end time");
+        }
+
+        WorkSession saved = saveVersioned(entry);
+        sessionAuditLog.recordEdit(audit, saved);
+        return WorkSessionResponse.fromEntity(saved);
+    }
+
+    public List<SessionAuditResponse> getSessionHistory(String username, Long sessionId) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        // Deleted sessions keep their history, so ownership is checked on the audit rows as well
+        boolean live = workSessionRepository.findByIdAndUser(sessionId, user).isPresent();
+        List<SessionAudit> history = sessionAuditLog.history(sessionId, user.getId(), live);
+        if (history.isEmpty() && !live) {
+            throw new NotFoundException("Work session not found");
+        }
+        ZoneId zone = user.zone();
+        return history.stream()
+                .map(audit -> SessionAuditResponse.fromEntity(audit, zone))
+                .toList();
     }
 
     public List<WorkSessionResponse> getEntriesByPage(String username, int page) {
         User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new NotFoundException("User not found"));
+
+        List<WorkSessionResponse> hot;
+        long hotCount;
+        if (timelineCache.isEnabled()) {
+            SessionTimeline timeline = getTimeline(user);
+            hot = timeline.pageByStartDescending(user, page, PAGE_SIZE);
+            hotCount = timeline.size();
+        } else {
+            hot = workSessionRepository.findByUserOrderByStartTimeDesc(user, PageRequest.of(page, PAGE_SIZE))
+                    .stream()
+                    .map(WorkSessionResponse::fromEntity)
+                    .toList();
+            hotCount = hot.size() < PAGE_SIZE ? workSessionRepository.countByUser(user) : Long.MAX_VALUE;
+        }
 
-        List<WorkSession> entries = workSessionRepository.findByUserOrderByStartTimeDesc(user)
-                .stream()
-                .skip((long) page * PAGE_SIZE)
-                .limit(PAGE_SIZE)
-                .collect(Collectors.toList());
+        // Archived sessions are older than the hot ones and continue the pages after them
+        if (hot.size() == PAGE_SIZE || page < 0 || !sessionArchive.covers(null)) {
+            return hot;
+        }
+        List<WorkSessionResponse> combined = new ArrayList<>(hot);
+        long archiveOffset = Math.max(0, (long) page * PAGE_SIZE - hotCount);
+        sessionArchive.pageByStartDescending(user, archiveOffset, PAGE_SIZE - hot.size())
+                .forEach(session -> combined.add(WorkSessionResponse.fromEntity(session)));
+        return combined;
+    }
+
+    /**
+     * Sessions whose notes contain all words of the query, newest first. Words are
+     * matched as whole tokens; a trailing {@code *} matches a prefix ({@code PROJ-4*}).
+     */
+    public List<WorkSessionResponse> searchSessions(String username, String query, LocalDate from, LocalDate to, int page) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found"));
 
-        return entries.stream()
+        String terms = toMatchTerms(query);
+        if (terms.isEmpty()) {
+            throw new BadRequestException("A search term is required");
+        }
+        if (page < 0) {
+            throw new BadRequestException("Page must not be negative");
+        }
+
+        ZoneId zone = user.zone();
+        long fromEpoch = from != null ? from.atStartOfDay(zone).toEpochSecond() : Long.MIN_VALUE;
+        long toEpoch = to != null ? to.plusDays(1).atStartOfDay(zone).toEpochSecond() : Long.MAX_VALUE;
+
+        return workSessionRepository.searchNotes(user.getId(), "owner:u" + user.getId() + " AND notes:(" + terms + ")",
+                        fromEpoch, toEpoch, SEARCH_PAGE_SIZE, (long) page * SEARCH_PAGE_SIZE)
+                .stream()
                 .map(WorkSessionResponse::fromEntity)
                 .toList();
     }
-}
\ No newline at end of file
+
+    // Every word becomes a quoted FTS5 string, so operators and syntax in user input are matched literally
+    static String toMatchTerms(String query) {
+        if (query == null) {
+            return "";
+        }
+        StringBuilder terms = new StringBuilder();
+        for (String word : query.trim().split("\\s+")) {
+            boolean prefix = word.endsWith("*");
+            String text = prefix ? word.substring(0, word.length() - 1) : word;
+            if (text.isEmpty()) {
+                continue;
+            }
+            if (!terms.isEmpty()) {
+                terms.append(' ');
+            }
+            terms.append('"').append(text.replace("\"", "\"\"")).append('"');
+            if (prefix) {
+                terms.append('*');
+            }
+        }
+        return terms.toString();
+    }
+
+    private Instant resolveTimestamp(User user, ClockEntryRequest request) {
+        Instant now = Instant.now();
+        if (request == null || request.timestamp() == null) {
+            return now;
+        }
+
+        // Wall-clock input is interpreted in the user's zone, which also makes DST gaps/overlaps explicit
+        Instant timestamp = request.timestamp().atZone(user.zone()).toInstant();
+
+        // Prevent future timestamps
+        if (timestamp.isAfter(now)) {
+            throw new BadRequestException("Cannot create entries with future timestamps");
+        }
+        return timestamp;
+    }
+
+    private WorkSession saveVersioned(WorkSession session) {
+        WorkSession saved = changeVersionService.writeVersioned(version -> {
+            session.setChangeVersion(version);
+            return workSessionRepository.save(session);
+        });
+        timelineCache.upsert(saved);
+        userWriteVersions.bump(saved.getUser().getUsername());
+        return saved;
+    }
+
+    // Keys carry the user's write version, so a read issued after a write never joins a load started before it
+    private record EntriesKey(String username, LocalDateTime start, LocalDateTime end, boolean compact, long writeVersion) {
+    }
+
+    private record ConfigKey(String username, long writeVersion) {
+    }
+}
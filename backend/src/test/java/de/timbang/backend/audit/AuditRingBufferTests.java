@@ -0,0 +1,71 @@
+package de.timbang.backend.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class AuditRingBufferTests {
+
+    @Test
+    void rejectsOffersWhenFullUntilDrained() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(List.of(0, 1, 2), drained);
+        assertTrue(buffer.offer(4));
+        assertEquals(2, buffer.drainTo(drained, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void concurrentProducersLoseNothingThatWasAccepted() throws Exception {
+        int producers = 4;
+        int perProducer = 200_000;
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(1024);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            int first = p * perProducer;
+            Thread.ofPlatform().start(() -> {
+                for (int i = first; i < first + perProducer; i++) {
+                    // Retries make every value arrive; full buffers are part of the test
+                    while (!buffer.offer(i)) {
+                        Thread.onSpinWait();
+                    }
+                    accepted.incrementAndGet();
+                }
+                done.countDown();
+            });
+        }
+
+        BitSet seen = new BitSet(producers * perProducer);
+        List<Integer> batch = new ArrayList<>();
+        int received = 0;
+        while (done.getCount() > 0 || received < accepted.get()) {
+            batch.clear();
+            received += buffer.drainTo(batch, 256);
+            for (int value : batch) {
+                assertFalse(seen.get(value), "received twice: " + value);
+                seen.set(value);
+            }
+        }
+
+        assertEquals(producers * perProducer, received);
+        assertEquals(producers * perProducer, seen.cardinality());
+    }
+}
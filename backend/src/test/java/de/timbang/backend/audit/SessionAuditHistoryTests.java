@@ -0,0 +1,48 @@
+package de.timbang.backend.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.timbang.backend.model.SessionAudit;
+import de.timbang.backend.repository.SessionAuditRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SessionAuditHistoryTests {
+
+    @Test
+    void leavesOutEarlierSessionsThatHadTheSameId() {
+        SessionAuditRepository repository = mock(SessionAuditRepository.class);
+        SessionAuditLog auditLog = new SessionAuditLog(mock(JdbcTemplate.class), mock(TransactionTemplate.class),
+                repository, new SimpleMeterRegistry(), 16, 10, Duration.ofSeconds(1), SessionAuditLog.Overflow.WRITE_THROUGH);
+
+        // Session 7 edited and deleted, id 7 handed out again, the new session edited and deleted as well
+        List<SessionAudit> rows = List.of(
+                audit(SessionAudit.Action.EDIT, 10),
+                audit(SessionAudit.Action.DELETE, 11),
+                audit(SessionAudit.Action.EDIT, 20),
+                audit(SessionAudit.Action.EDIT, 21));
+        when(repository.findBySessionIdAndUserIdOrderByChangeVersionAscIdAsc(7L, 1L)).thenReturn(rows);
+        assertEquals(rows.subList(2, 4), auditLog.history(7L, 1L, true));
+
+        List<SessionAudit> deletedAgain = List.of(rows.get(0), rows.get(1), rows.get(2), audit(SessionAudit.Action.DELETE, 22));
+        when(repository.findBySessionIdAndUserIdOrderByChangeVersionAscIdAsc(7L, 1L)).thenReturn(deletedAgain);
+        assertEquals(deletedAgain.subList(2, 4), auditLog.history(7L, 1L, false));
+    }
+
+    private static SessionAudit audit(SessionAudit.Action action, long changeVersion) {
+        SessionAudit audit = new SessionAudit();
+        audit.setAction(action);
+        audit.setSessionId(7L);
+        audit.setUserId(1L);
+        audit.setChangeVersion(changeVersion);
+        return audit;
+    }
+}
@@ -0,0 +1,85 @@
+package de.timbang.backend.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import de.timbang.backend.model.User;
+import de.timbang.backend.model.WorkSession;
+import de.timbang.backend.model.dto.response.WorkSessionResponse;
+
+/**
+ * Small helpers shared by the {@code @Tag("benchmark")} tests. These are not JMH
+ * benchmarks, they give a reproducible ballpark: run with {@code mvn test -Pbenchmark}.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    static double averageMicros(int warmupRuns, int measuredRuns, ThrowingRunnable task) throws Exception {
+        for (int i = 0; i < warmupRuns; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < measuredRuns; i++) {
+            task.run();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / measuredRuns;
+    }
+
+    static int gzipSize(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.size();
+    }
+
+    static List<WorkSessionResponse> sessions(int count) {
+        return sessionEntities(count).stream()
+                .map(WorkSessionResponse::fromEntity)
+                .toList();
+    }
+
+    static List<WorkSession> sessionEntities(int count) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark.user");
+        user.setZoneId("Europe/Berlin");
+
+        List<WorkSession> sessions = new ArrayList<>(count);
+        Instant start = LocalDateTime.of(2020, 1, 1, 8, 0).atZone(user.zone()).toInstant();
+        for (int i = 0; i < count; i++) {
+            Instant begin = start.plus(Duration.ofDays(i)).plus(Duration.ofMinutes(i % 45));
+            WorkSession session = new WorkSession();
+            session.setId((long) i + 1);
+            session.setUser(user);
+            session.setStartTime(begin);
+            session.setEndTime(i == count - 1 ? null : begin.plus(Duration.ofHours(8)).plus(Duration.ofMinutes(i % 30)));
+            session.setNotes(i % 3 == 0 ? "PROJ-" + (i % 100) + " review" : null);
+            sessions.add(session);
+        }
+        return sessions;
+    }
+
+    static void report(String name, String format, Object... args) {
+        System.out.printf("[benchmark] %-40s " + format + "%n", prepend(name, args));
+    }
+
+    private static Object[] prepend(Object first, Object[] rest) {
+        Object[] all = new Object[rest.length + 1];
+        all[0] = first;
+        System.arraycopy(rest, 0, all, 1, rest.length);
+        return all;
+    }
+}
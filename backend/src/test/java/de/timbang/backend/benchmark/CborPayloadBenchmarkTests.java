@@ -0,0 +1,46 @@
+package de.timbang.backend.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.timbang.backend.model.dto.response.WorkSessionResponse;
+
+@Tag("benchmark")
+class CborPayloadBenchmarkTests {
+
+    private static final int ROWS = 10_000;
+    private static final TypeReference<List<WorkSessionResponse>> SESSION_LIST = new TypeReference<>() {};
+
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
+    @Test
+    void cborAgainstJsonForSessionLists() throws Exception {
+        List<WorkSessionResponse> sessions = BenchmarkSupport.sessions(ROWS);
+
+        byte[] json = jsonMapper.writeValueAsBytes(sessions);
+        byte[] cbor = cborMapper.writeValueAsBytes(sessions);
+
+        double jsonWrite = BenchmarkSupport.averageMicros(20, 50, () -> jsonMapper.writeValueAsBytes(sessions));
+        double cborWrite = BenchmarkSupport.averageMicros(20, 50, () -> cborMapper.writeValueAsBytes(sessions));
+        double jsonRead = BenchmarkSupport.averageMicros(20, 50, () -> jsonMapper.readValue(json, SESSION_LIST));
+        double cborRead = BenchmarkSupport.averageMicros(20, 50, () -> cborMapper.readValue(cbor, SESSION_LIST));
+
+        BenchmarkSupport.report("sessions json", "%,9d bytes  %,9d gzip  %,10.1f us/write  %,10.1f us/read",
+                json.length, BenchmarkSupport.gzipSize(json), jsonWrite, jsonRead);
+        BenchmarkSupport.report("sessions cbor", "%,9d bytes  %,9d gzip  %,10.1f us/write  %,10.1f us/read",
+                cbor.length, BenchmarkSupport.gzipSize(cbor), cborWrite, cborRead);
+
+        assertEquals(sessions, cborMapper.readValue(cbor, SESSION_LIST));
+        assertTrue(cbor.length < json.length);
+    }
+}
@@ -0,0 +1,46 @@
+package de.timbang.backend.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.timbang.backend.model.WorkSession;
+import de.timbang.backend.model.dto.response.CompactWorkSessionsResponse;
+import de.timbang.backend.model.dto.response.WorkSessionResponse;
+
+@Tag("benchmark")
+class EntriesPayloadBenchmarkTests {
+
+    private static final int ROWS = 10_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void compactRepresentationShrinksTenThousandRows() throws Exception {
+        List<WorkSession> entities = BenchmarkSupport.sessionEntities(ROWS);
+        List<WorkSessionResponse> sessions = entities.stream().map(WorkSessionResponse::fromEntity).toList();
+
+        byte[] json = objectMapper.writeValueAsBytes(sessions);
+        byte[] compact = objectMapper.writeValueAsBytes(
+                CompactWorkSessionsResponse.fromEntities("benchmark.user", "Europe/Berlin", entities));
+
+        double jsonMicros = BenchmarkSupport.averageMicros(20, 50,
+                () -> objectMapper.writeValueAsBytes(sessions));
+        double compactMicros = BenchmarkSupport.averageMicros(20, 50,
+                () -> objectMapper.writeValueAsBytes(
+                        CompactWorkSessionsResponse.fromEntities("benchmark.user", "Europe/Berlin", entities)));
+
+        BenchmarkSupport.report("entries json", "%,9d bytes  %,9d gzip  %,10.1f us/serialize",
+                json.length, BenchmarkSupport.gzipSize(json), jsonMicros);
+        BenchmarkSupport.report("entries compact json", "%,9d bytes  %,9d gzip  %,10.1f us/serialize",
+                compact.length, BenchmarkSupport.gzipSize(compact), compactMicros);
+
+        assertTrue(compact.length < json.length);
+    }
+}
@@ -0,0 +1,76 @@
+package de.timbang.backend.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.timbang.backend.exception.BusinessException;
+import de.timbang.backend.exception.GlobalExceptionHandler;
+import de.timbang.backend.exception.NotFoundException;
+
+/**
+ * Cost of rejecting a request: throwing at a realistic stack depth, catching and
+ * building the error body. Compares the old RuntimeException + per-call Map body
+ * with a stackless {@link BusinessException} and the handler's cached body.
+ */
+@Tag("benchmark")
+class ErrorPathBenchmarkTests {
+
+    // Roughly the frames between the servlet container and a service method
+    private static final int STACK_DEPTH = 120;
+    private static final int REJECTIONS = 10_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(objectMapper);
+
+    @Test
+    void businessExceptionIsCheaperThanRuntimeException() throws Exception {
+        double legacy = BenchmarkSupport.averageMicros(5, 20, () -> {
+            for (int i = 0; i < REJECTIONS; i++) {
+                try {
+                    throwAtDepth(STACK_DEPTH, false);
+                } catch (RuntimeException e) {
+                    objectMapper.writeValueAsBytes(Map.of("error", e.getMessage()));
+                }
+            }
+        }) / REJECTIONS;
+
+        double typed = BenchmarkSupport.averageMicros(5, 20, () -> {
+            for (int i = 0; i < REJECTIONS; i++) {
+                try {
+                    throwAtDepth(STACK_DEPTH, true);
+                } catch (BusinessException e) {
+                    handler.handleBusinessException(e, new MockHttpServletResponse());
+                }
+            }
+        }) / REJECTIONS;
+
+        BenchmarkSupport.report("RuntimeException + Map body", "%,10.3f us/rejection", legacy);
+        BenchmarkSupport.report("BusinessException + cached body", "%,10.3f us/rejection", typed);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handleBusinessException(new NotFoundException("User not found"), response);
+        assertEquals(404, response.getStatus());
+        assertEquals("{\"error\":\"User not found\"}", response.getContentAsString());
+        assertTrue(typed < legacy);
+    }
+
+    private static void throwAtDepth(int depth, boolean typed) {
+        if (depth > 0) {
+            throwAtDepth(depth - 1, typed);
+            return;
+        }
+        if (typed) {
+            throw new NotFoundException("User not found");
+        }
+        throw new RuntimeException("User not found");
+    }
+}
@@ -0,0 +1,119 @@
+package de.timbang.backend.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.timbang.backend.migration.WorkSessionSearchIndex;
+import de.timbang.backend.repository.WorkSessionRepository;
+
+/**
+ * Latency of the notes search over one million sessions of 1,000 users in an
+ * in-memory SQLite database, using the real index DDL and repository query.
+ */
+@Tag("benchmark")
+class NotesSearchBenchmarkTests {
+
+    private static final int USERS = 1_000;
+    private static final int SESSIONS = 1_000_000;
+    private static final int PROJECTS = 500;
+    private static final String[] WORDS = {"meeting", "review", "deploy", "bugfix", "planning", "support", "docs"};
+
+    @Test
+    void searchStaysFastOnMillionsOfRows() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            SingleConnectionDataSource dataSource = new SingleConnectionDataSource(connection, true);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("CREATE TABLE work_session (id INTEGER PRIMARY KEY, user_id INTEGER, " +
+                    "start_epoch INTEGER, end_epoch INTEGER, notes TEXT, change_version INTEGER, version INTEGER DEFAULT 0)");
+            jdbcTemplate.execute("CREATE INDEX idx_work_session_user_start ON work_session (user_id, start_epoch, end_epoch)");
+            insertSessions(connection);
+
+            TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            long indexStart = System.nanoTime();
+            new WorkSessionSearchIndex(jdbcTemplate, transactionTemplate).init();
+            BenchmarkSupport.report("build index", "%,10.1f ms", (System.nanoTime() - indexStart) / 1_000_000.0);
+
+            // Bound by name, the placeholders of the repository query are not in parameter order
+            NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+            String sql = WorkSessionRepository.class
+                    .getMethod("searchNotes", Long.class, String.class, long.class, long.class, int.class, long.class)
+                    .getAnnotation(Query.class).value();
+
+            Random random = new Random(42);
+            int[] emptyResults = new int[1];
+            double micros = BenchmarkSupport.averageMicros(200, 1_000, () -> {
+                long userId = 1 + random.nextInt(USERS);
+                String match = "owner:u" + userId + " AND notes:(\"PROJ-" + usualProject(userId) + "\")";
+                if (namedJdbcTemplate.queryForList(sql, searchParameters(userId, match)).isEmpty()) {
+                    emptyResults[0]++;
+                }
+            });
+            BenchmarkSupport.report("search one user's notes", "%,10.1f us/query", micros);
+
+            List<Long> hits = namedJdbcTemplate.queryForList(sql.replace("s.*", "s.id"),
+                    searchParameters(7, "owner:u7 AND notes:(\"PROJ-7\")"), Long.class);
+            assertEquals(50, hits.size());
+            // Every timed query searched for a project the user mentions, so it had to find something
+            assertEquals(0, emptyResults[0]);
+            assertTrue(micros < 10_000);
+        }
+    }
+
+    // The project every user mentions most often (see insertSessions), user 7 only mentions PROJ-7
+    private static long usualProject(long userId) {
+        return userId == 7 ? 7 : 1 + userId * 31 % PROJECTS;
+    }
+
+    private static MapSqlParameterSource searchParameters(long userId, String match) {
+        return new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("match", match)
+                .addValue("fromEpoch", Long.MIN_VALUE)
+                .addValue("toEpoch", Long.MAX_VALUE)
+                .addValue("limit", 50)
+                .addValue("offset", 0L);
+    }
+
+    private static void insertSessions(Connection connection) throws Exception {
+        Random random = new Random(7);
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO work_session (id, user_id, start_epoch, end_epoch, notes, change_version) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= SESSIONS; i++) {
+                long userId = 1 + (i % USERS);
+                long start = 1_600_000_000L + i * 600L;
+                // Every user works on a handful of projects, user 7 always mentions PROJ-7
+                long project = userId == 7 ? 7 : 1 + (userId * 31 + random.nextInt(5)) % PROJECTS;
+                insert.setLong(1, i);
+                insert.setLong(2, userId);
+                insert.setLong(3, start);
+                insert.setLong(4, start + 3600);
+                insert.setString(5, WORDS[random.nextInt(WORDS.length)] + " PROJ-" + project);
+                insert.setLong(6, i);
+                insert.addBatch();
+                if (i % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+}
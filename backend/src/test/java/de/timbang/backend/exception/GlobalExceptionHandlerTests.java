@@ -0,0 +1,34 @@
+package de.timbang.backend.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class GlobalExceptionHandlerTests {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(new ObjectMapper());
+
+    @Test
+    void messagesWithDetailDoNotFillTheCache() throws Exception {
+        for (int i = 0; i < 300; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            handler.handleBusinessException(
+                    new BadRequestException("Clock-out time must be after clock-in time", "2024-01-01T08:" + i), response);
+            assertEquals(400, response.getStatus());
+            assertEquals("{\"error\":\"Clock-out time must be after clock-in time (2024-01-01T08:" + i + ")\"}",
+                    response.getContentAsString());
+        }
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handleBusinessException(new NotFoundException("User not found"), response);
+        assertEquals(404, response.getStatus());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        assertEquals("{\"error\":\"User not found\"}", response.getContentAsString());
+        assertSame(handler.body("User not found"), handler.body("User not found"));
+    }
+}
@@ -0,0 +1,179 @@
+package de.timbang.backend.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.timbang.backend.model.MigrationCheckpoint;
+import de.timbang.backend.repository.MigrationCheckpointRepository;
+import de.timbang.backend.service.ChangeVersionService;
+import de.timbang.backend.service.SessionTimelineCache;
+import de.timbang.backend.service.UserWriteVersions;
+
+class WorkEntryMigrationTests {
+
+    private Connection connection;
+    private JdbcTemplate jdbcTemplate;
+    private MigrationCheckpoint storedCheckpoint;
+    private WorkEntryMigration migration;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        DataSource dataSource = new SingleConnectionDataSource(connection, true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // The checkpoint entity is kept here, its row is what the per-user transaction updates
+        MigrationCheckpointRepository checkpointRepository = mock(MigrationCheckpointRepository.class);
+        when(checkpointRepository.findById(WorkEntryMigration.NAME)).thenAnswer(invocation -> Optional.ofNullable(storedCheckpoint));
+        when(checkpointRepository.save(any())).thenAnswer(invocation -> {
+            storedCheckpoint = invocation.getArgument(0);
+            return storedCheckpoint;
+        });
+        AtomicLong versions = new AtomicLong();
+        ChangeVersionService changeVersionService = mock(ChangeVersionService.class);
+        when(changeVersionService.writeVersioned(any()))
+                .thenAnswer(invocation -> invocation.<LongFunction<?>>getArgument(0).apply(versions.incrementAndGet()));
+
+        migration = new WorkEntryMigration(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                checkpointRepository, changeVersionService, mock(SessionTimelineCache.class), new UserWriteVersions());
+
+        jdbcTemplate.execute("CREATE TABLE user (id INTEGER PRIMARY KEY, username VARCHAR(255), zone_id VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE work_entry (id INTEGER PRIMARY KEY, user_id BIGINT, timestamp TIMESTAMP, " +
+                "type VARCHAR(255), notes VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE work_session (id INTEGER PRIMARY KEY AUTOINCREMENT, user_id BIGINT, " +
+                "start_epoch BIGINT, end_epoch BIGINT, notes VARCHAR(255), change_version BIGINT, version INTEGER DEFAULT 0 NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE migration_checkpoint (name VARCHAR(255) PRIMARY KEY, status VARCHAR(255), " +
+                "last_user_id BIGINT NOT NULL DEFAULT 0, processed_users BIGINT NOT NULL DEFAULT 0, " +
+                "processed_entries BIGINT NOT NULL DEFAULT 0, created_sessions BIGINT NOT NULL DEFAULT 0, " +
+                "skipped_entries BIGINT NOT NULL DEFAULT 0, updated_epoch BIGINT, error VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO migration_checkpoint (name) VALUES (?)", WorkEntryMigration.NAME);
+        jdbcTemplate.update("INSERT INTO user (id, username, zone_id) VALUES (1, 'alice', 'UTC'), (2, 'bob', 'UTC')");
+
+        entry(1, "08:00", "CLOCK_OUT", "orphan");
+        entry(1, "09:00", "CLOCK_IN", "first");
+        entry(1, "10:00", "CLOCK_IN", null);
+        entry(1, "12:00", "CLOCK_OUT", "from clock-out");
+        entry(1, "13:00", "CLOCK_OUT", null);
+        entry(1, "14:00", "CLOCK_IN", "still working");
+        entry(2, "08:00", "CLOCK_IN", "bob");
+        entry(2, "16:00", "CLOCK_OUT", null);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void pairsLegacyEventsIntoSessions() {
+        migration.migrate();
+
+        assertEquals(List.of(
+                // A clock-in followed by another clock-in stays open
+                session(epoch("09:00"), null, "first"),
+                // Notes fall back to the clock-out
+                session(epoch("10:00"), epoch("12:00"), "from clock-out"),
+                // The trailing clock-in stays open
+                session(epoch("14:00"), null, "still working")), sessions(1));
+        assertEquals(List.of(session(epoch("08:00"), epoch("16:00"), "bob")), sessions(2));
+
+        // The clock-outs at 08:00 and 13:00 have no clock-in
+        assertEquals(MigrationCheckpoint.Status.COMPLETED, storedCheckpoint.getStatus());
+        assertEquals(2, storedCheckpoint.getProcessedUsers());
+        assertEquals(8, storedCheckpoint.getProcessedEntries());
+        assertEquals(4, storedCheckpoint.getCreatedSessions());
+        assertEquals(2, storedCheckpoint.getSkippedEntries());
+        assertEquals(List.of(2L, 2L, 8L, 4L, 2L), checkpointRow());
+    }
+
+    @Test
+    void resumesAtTheFirstUnfinishedUser() {
+        jdbcTemplate.execute("CREATE TRIGGER interrupt BEFORE INSERT ON work_session WHEN new.user_id = 2 BEGIN " +
+                "SELECT RAISE(ABORT, 'interrupted'); END");
+
+        assertThrows(DataAccessException.class, migration::migrate);
+        assertEquals(MigrationCheckpoint.Status.FAILED, storedCheckpoint.getStatus());
+        assertEquals(1, storedCheckpoint.getLastUserId());
+        assertEquals(3, sessions(1).size());
+        // Bob's transaction rolled back together with his checkpoint update
+        assertEquals(List.of(), sessions(2));
+        assertEquals(List.of(1L, 1L, 6L, 3L, 2L), checkpointRow());
+
+        jdbcTemplate.execute("DROP TRIGGER interrupt");
+        migration.migrate();
+
+        assertEquals(MigrationCheckpoint.Status.COMPLETED, storedCheckpoint.getStatus());
+        assertEquals(3, sessions(1).size());
+        assertEquals(1, sessions(2).size());
+        assertEquals(2, storedCheckpoint.getProcessedUsers());
+        assertEquals(4, storedCheckpoint.getCreatedSessions());
+        assertEquals(List.of(2L, 2L, 8L, 4L, 2L), checkpointRow());
+    }
+
+    @Test
+    void rerunningAUserDoesNotInsertItsSessionsTwice() {
+        migration.migrate();
+
+        // As if the checkpoint entity was lost after the users' transactions committed
+        storedCheckpoint = null;
+        migration.migrate();
+
+        assertEquals(3, sessions(1).size());
+        assertEquals(1, sessions(2).size());
+        assertEquals(0, storedCheckpoint.getCreatedSessions());
+        // Every paired or open session is skipped with its events, the orphans as before
+        assertEquals(8, storedCheckpoint.getSkippedEntries());
+    }
+
+    private void entry(long userId, String time, String type, String notes) {
+        jdbcTemplate.update("INSERT INTO work_entry (user_id, timestamp, type, notes) VALUES (?, ?, ?, ?)",
+                userId, "2024-03-04 " + time + ":00", type, notes);
+    }
+
+    private static long epoch(String time) {
+        return LocalDateTime.parse("2024-03-04T" + time).toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private List<List<Object>> sessions(long userId) {
+        return jdbcTemplate.query("SELECT start_epoch, end_epoch, notes FROM work_session WHERE user_id = ? ORDER BY start_epoch",
+                (rs, rowNum) -> {
+                    Long end = rs.getObject("end_epoch") != null ? rs.getLong("end_epoch") : null;
+                    return session(rs.getLong("start_epoch"), end, rs.getString("notes"));
+                }, userId);
+    }
+
+    private static List<Object> session(long start, Long end, String notes) {
+        return Arrays.asList(start, end, notes);
+    }
+
+    private List<Long> checkpointRow() {
+        return jdbcTemplate.queryForObject("SELECT last_user_id, processed_users, processed_entries, created_sessions, " +
+                        "skipped_entries FROM migration_checkpoint WHERE name = ?",
+                (rs, rowNum) -> List.of(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)),
+                WorkEntryMigration.NAME);
+    }
+}
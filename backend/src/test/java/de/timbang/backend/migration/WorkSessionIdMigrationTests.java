@@ -0,0 +1,79 @@
+package de.timbang.backend.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class WorkSessionIdMigrationTests {
+
+    private Connection connection;
+    private JdbcTemplate jdbcTemplate;
+    private WorkSessionIdMigration migration;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        DataSource dataSource = new SingleConnectionDataSource(connection, true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        migration = new WorkSessionIdMigration(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+
+        // As Hibernate creates it
+        jdbcTemplate.execute("CREATE TABLE work_session (id integer, change_version bigint, end_epoch bigint, " +
+                "notes varchar(255), start_epoch bigint, version INTEGER DEFAULT 0 not null, user_id bigint, primary key (id))");
+        jdbcTemplate.execute("CREATE INDEX idx_work_session_user_start ON work_session (user_id, start_epoch, end_epoch)");
+        jdbcTemplate.execute("CREATE TABLE session_log (session_id INTEGER)");
+        jdbcTemplate.execute("CREATE TRIGGER work_session_log AFTER INSERT ON work_session BEGIN " +
+                "INSERT INTO session_log (session_id) VALUES (new.id); END");
+        jdbcTemplate.execute("CREATE TABLE work_session_tombstone (id integer, session_id bigint, primary key (id))");
+        for (int i = 1; i <= 3; i++) {
+            jdbcTemplate.update("INSERT INTO work_session (user_id, start_epoch, notes) VALUES (1, ?, ?)", i * 100, "n" + i);
+        }
+        jdbcTemplate.update("INSERT INTO work_session_tombstone (session_id) VALUES (4)");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void rebuildsTheTableSoIdsAreNeverReused() {
+        migration.migrate();
+
+        String sql = jdbcTemplate.queryForObject("SELECT sql FROM sqlite_master WHERE name = 'work_session'", String.class);
+        assertTrue(sql.contains("AUTOINCREMENT"), sql);
+        assertEquals(List.of("n1", "n2", "n3"), jdbcTemplate.queryForList("SELECT notes FROM work_session ORDER BY id", String.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT version FROM work_session WHERE id = 1", Integer.class));
+        assertEquals(List.of("idx_work_session_user_start", "work_session_log"), jdbcTemplate.queryForList(
+                "SELECT name FROM sqlite_master WHERE tbl_name = 'work_session' AND type IN ('index', 'trigger') ORDER BY name",
+                String.class));
+
+        // Above the tombstoned id 4, and the newest id is not handed out again after its delete
+        assertEquals(5, insert());
+        jdbcTemplate.update("DELETE FROM work_session WHERE id = 5");
+        assertEquals(6, insert());
+        assertEquals(List.of(1L, 2L, 3L, 5L, 6L), jdbcTemplate.queryForList("SELECT session_id FROM session_log", Long.class));
+
+        // A second start leaves the table alone
+        migration.migrate();
+        assertEquals(7, insert());
+    }
+
+    private long insert() {
+        jdbcTemplate.update("INSERT INTO work_session (user_id, start_epoch) VALUES (1, 900)");
+        return jdbcTemplate.queryForObject("SELECT last_insert_rowid()", Long.class);
+    }
+}
@@ -0,0 +1,50 @@
+package de.timbang.backend.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Statement budgets for tests, so a route that starts issuing a query per row fails
+ * its test instead of slowing down in production.
+ * <pre>
+ * StatementBudget.assertAtMost(3, () -&gt; workService.getEntries(...));
+ * mockMvc.perform(get("/api/v1/work/entries")).andExpect(StatementBudget.atMost(3));
+ * </pre>
+ * Both only see statements of the calling thread and need the proxied data source
+ * ({@code app.sql-stats.enabled}, on by default).
+ */
+public final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    public static <T> T assertAtMost(int maxStatements, Callable<T> action) throws Exception {
+        try (StatementStats.Recording recording = StatementStats.start(true)) {
+            T result = action.call();
+            if (recording.getStatements() > maxStatements) {
+                fail("Expected at most " + maxStatements + " statements but " + recording.getStatements()
+                        + " ran:\n  " + String.join("\n  ", recording.getSql()));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Checks the {@code X-DB-Statements} header of a MockMvc response; the request has to
+     * pass {@link StatementMetricsFilter} and {@code app.sql-stats.headers} must be on.
+     */
+    public static ResultMatcher atMost(int maxStatements) {
+        return result -> {
+            String header = result.getResponse().getHeader(StatementHeadersAdvice.STATEMENTS_HEADER);
+            assertNotNull(header, "No " + StatementHeadersAdvice.STATEMENTS_HEADER + " header on the response");
+            int statements = Integer.parseInt(header);
+            assertTrue(statements <= maxStatements, "Expected at most " + maxStatements
+                    + " statements for " + result.getRequest().getRequestURI() + " but " + statements + " ran");
+        };
+    }
+}
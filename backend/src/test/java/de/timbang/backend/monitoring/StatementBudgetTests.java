@@ -0,0 +1,95 @@
+package de.timbang.backend.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+class StatementBudgetTests {
+
+    private Connection connection;
+    private JdbcTemplate jdbcTemplate;
+    private QueryInfo lastQuery;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        DataSource dataSource = ProxyDataSourceBuilder.create(new SingleConnectionDataSource(connection, true))
+                .listener(new StatementMetricsListener(Duration.ofSeconds(1)))
+                .listener(new QueryExecutionListener() {
+                    @Override
+                    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                    }
+
+                    @Override
+                    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                        lastQuery = queryInfoList.get(0);
+                    }
+                })
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE work_session (id INTEGER PRIMARY KEY, user_id INTEGER, notes TEXT)");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void countsStatementsOfNestedRecordings() {
+        try (StatementStats.Recording outer = StatementStats.start()) {
+            jdbcTemplate.update("INSERT INTO work_session (user_id, notes) VALUES (?, ?)", 1, "review");
+            try (StatementStats.Recording inner = StatementStats.start()) {
+                jdbcTemplate.queryForList("SELECT id FROM work_session WHERE user_id = ?", 1);
+                assertEquals(1, inner.getStatements());
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO work_session (user_id) VALUES (?)", List.of(new Object[]{2}, new Object[]{3}));
+            assertEquals(3, outer.getStatements());
+            assertTrue(outer.getNanos() > 0);
+        }
+    }
+
+    @Test
+    void failsWhenTheBudgetIsExceeded() throws Exception {
+        assertEquals(0, StatementBudget.assertAtMost(1,
+                () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM work_session", Integer.class)));
+
+        AssertionFailedError error = assertThrows(AssertionFailedError.class, () -> StatementBudget.assertAtMost(1, () -> {
+            for (int userId = 1; userId <= 3; userId++) {
+                jdbcTemplate.queryForList("SELECT id FROM work_session WHERE user_id = ?", userId);
+            }
+            return null;
+        }));
+        assertTrue(error.getMessage().contains("but 3 ran"));
+        assertTrue(error.getMessage().contains("SELECT id FROM work_session WHERE user_id = ?"));
+    }
+
+    @Test
+    void describesParametersWithoutTheirValues() {
+        jdbcTemplate.update("INSERT INTO work_session (user_id, notes) VALUES (?, ?)", 7L, "secret notes");
+        assertEquals("[Long, String(12)]", StatementMetricsListener.parameterShape(lastQuery));
+
+        jdbcTemplate.batchUpdate("INSERT INTO work_session (user_id, notes) VALUES (?, ?)",
+                List.of(new Object[]{1L, null}, new Object[]{2L, null}));
+        assertEquals("[Long, null] x 2", StatementMetricsListener.parameterShape(lastQuery));
+    }
+}
@@ -0,0 +1,63 @@
+package de.timbang.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class JwtAuthFilterTests {
+
+    private final JwtService jwtService = new JwtService(mock(TokenRevocationService.class));
+    private final JwtAuthFilter filter = new JwtAuthFilter(jwtService);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtService, "secretKey", "testSecretKey1234567890123456789012345");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "eventsTicketExpiration", 60_000L);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void eventsTicketOpensTheEventStreamOnly() throws Exception {
+        String ticket = jwtService.generateEventsTicket("alice");
+
+        assertEquals("alice", authenticate(JwtAuthFilter.EVENTS_PATH, ticket, null).getName());
+        assertNull(authenticate("/api/v1/work/entries", ticket, null));
+        assertNull(authenticate("/api/v1/work/entries", null, ticket));
+    }
+
+    @Test
+    void accessTokenIsNotAcceptedInTheUrl() throws Exception {
+        String token = jwtService.generateToken("alice");
+
+        assertNull(authenticate(JwtAuthFilter.EVENTS_PATH, token, null));
+        assertEquals("alice", authenticate(JwtAuthFilter.EVENTS_PATH, null, token).getName());
+    }
+
+    private Authentication authenticate(String path, String ticket, String bearer) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (ticket != null) {
+            request.setParameter(JwtAuthFilter.EVENTS_TICKET_PARAMETER, ticket);
+        }
+        if (bearer != null) {
+            request.addHeader("Authorization", "Bearer " + bearer);
+        }
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,74 @@
+package de.timbang.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+class RateLimitFilterTests {
+
+    private static final int CAPACITY = 5;
+    private static final int ADDRESS_CAPACITY = 20;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void garbageBearerFloodIsRejected() throws Exception {
+        List<RateLimitProperties.RouteGroup> groups = List.of(new RateLimitProperties.RouteGroup(
+                "work", "/api/v1/work/", RateLimitProperties.KeyType.USER, CAPACITY, Duration.ofMinutes(1),
+                (long) ADDRESS_CAPACITY));
+        RateLimiter rateLimiter = new RateLimiter();
+        JwtService jwtService = spy(new JwtService(mock(TokenRevocationService.class)));
+        ReflectionTestUtils.setField(jwtService, "secretKey", "testSecretKey1234567890123456789012345");
+        JwtAuthFilter jwtAuthFilter = new JwtAuthFilter(jwtService);
+        RateLimitFilter before = new RateLimitFilter(rateLimiter, groups, RateLimitFilter.Phase.BEFORE_AUTHENTICATION);
+        RateLimitFilter after = new RateLimitFilter(rateLimiter, groups, RateLimitFilter.Phase.AFTER_AUTHENTICATION);
+
+        AtomicInteger served = new AtomicInteger();
+        HttpServlet endpoint = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                served.incrementAndGet();
+            }
+        };
+
+        int rejected = 0;
+        for (int i = 0; i < 100; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/work/entries");
+            request.setRemoteAddr("203.0.113.7");
+            request.addHeader("Authorization", "Bearer garbage");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            new MockFilterChain(endpoint, before, jwtAuthFilter, after).doFilter(request, response);
+            if (response.getStatus() == 429) {
+                rejected++;
+            }
+        }
+
+        // The failed token check lands in the address bucket after authentication...
+        assertEquals(CAPACITY, served.get());
+        assertEquals(100 - CAPACITY, rejected);
+        // ...and the larger bucket before it stops the parsing once exhausted
+        verify(jwtService, atMost(ADDRESS_CAPACITY)).parseClaims(anyString());
+    }
+}
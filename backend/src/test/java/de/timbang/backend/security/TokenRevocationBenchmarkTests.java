@@ -0,0 +1,74 @@
+package de.timbang.backend.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import de.timbang.backend.repository.RevokedTokenRepository;
+
+/**
+ * Per-request cost of the revocation check for a token that was not revoked, with
+ * 100k revoked ids in the filter, and how often the database fallback is hit.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class TokenRevocationBenchmarkTests {
+
+    private static final int REVOKED = 100_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    @Test
+    void revocationCheckIsNegligiblePerRequest() {
+        RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+        when(repository.existsByTokenId(anyString())).thenReturn(false);
+
+        TokenRevocationService service = new TokenRevocationService(repository, REVOKED);
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        for (int i = 0; i < REVOKED; i++) {
+            service.revoke(UUID.randomUUID().toString(), expiresAt);
+        }
+
+        List<String> activeIds = new ArrayList<>(LOOKUPS);
+        for (int i = 0; i < LOOKUPS; i++) {
+            activeIds.add(UUID.randomUUID().toString());
+        }
+
+        int possibleHits = 0;
+        for (int round = 0; round < 3; round++) {
+            possibleHits = 0;
+            long start = System.nanoTime();
+            for (String tokenId : activeIds) {
+                if (service.isRevoked(tokenId)) {
+                    possibleHits++;
+                }
+            }
+            long nanosPerCheck = (System.nanoTime() - start) / LOOKUPS;
+            System.out.printf("[benchmark] %-40s %,8d ns/check%n", "revocation check (round " + round + ")", nanosPerCheck);
+        }
+
+        BloomFilter filter = new BloomFilter(REVOKED, 0.001);
+        List<String> revokedIds = new ArrayList<>(REVOKED);
+        for (int i = 0; i < REVOKED; i++) {
+            String tokenId = UUID.randomUUID().toString();
+            revokedIds.add(tokenId);
+            filter.add(tokenId);
+        }
+        long falsePositives = activeIds.stream().filter(filter::mightContain).count();
+        System.out.printf("[benchmark] %-40s %,8d of %,d (%.4f%%)%n", "database fallbacks",
+                falsePositives, LOOKUPS, falsePositives * 100.0 / LOOKUPS);
+
+        assertFalse(possibleHits > 0);
+        assertTrue(revokedIds.stream().allMatch(filter::mightContain));
+        assertTrue(falsePositives < LOOKUPS / 100);
+    }
+}
@@ -0,0 +1,40 @@
+package de.timbang.backend.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.timbang.backend.security.JwtService;
+import de.timbang.backend.security.TokenRevocationService;
+
+class AuthServiceTests {
+
+    @Test
+    void logoutWithAnExpiredAccessTokenStillRevokesTheRefreshToken() {
+        TokenRevocationService revocations = mock(TokenRevocationService.class);
+        when(revocations.revoke(any(), any())).thenReturn(true);
+        JwtService jwtService = new JwtService(revocations);
+        ReflectionTestUtils.setField(jwtService, "secretKey", "testSecretKey1234567890123456789012345");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", -60_000L);
+        ReflectionTestUtils.setField(jwtService, "jwtRefreshExpiration", 60_000L);
+        AuthService authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "jwtService", jwtService);
+
+        String expiredAccessToken = jwtService.generateToken("alice");
+        String refreshToken = jwtService.generateRefreshToken("alice");
+        String refreshTokenId = jwtService.parseClaims(refreshToken).getId();
+
+        authService.logout(expiredAccessToken, refreshToken);
+
+        verify(revocations).revoke(eq(refreshTokenId), any(Instant.class));
+        verify(revocations, times(1)).revoke(any(), any());
+    }
+}
@@ -0,0 +1,91 @@
+package de.timbang.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.timbang.backend.repository.WorkSessionRepository;
+import de.timbang.backend.repository.WorkSessionTombstoneRepository;
+
+class ChangeVersionServiceTests {
+
+    private Connection connection;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        DataSource dataSource = new SingleConnectionDataSource(connection, true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE change_version_counter (id INTEGER PRIMARY KEY, version BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE change (version BIGINT)");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void instancesSharingTheDatabaseNeverAssignTheSameVersion() {
+        ChangeVersionService first = instance(5);
+        ChangeVersionService second = instance(3);
+
+        List<Long> versions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            versions.add(first.writeVersioned(this::record));
+            versions.add(second.writeVersioned(this::record));
+        }
+
+        assertEquals(List.of(6L, 7L, 8L, 9L, 10L, 11L), versions);
+        assertEquals(versions, jdbcTemplate.queryForList("SELECT version FROM change ORDER BY version", Long.class));
+        assertEquals(11, first.getCurrentVersion());
+        assertEquals(11, second.getCurrentVersion());
+    }
+
+    @Test
+    void failedWriteDoesNotAdvanceTheVersion() {
+        ChangeVersionService service = instance(0);
+
+        assertThrows(IllegalStateException.class, () -> service.writeVersioned(version -> {
+            record(version);
+            throw new IllegalStateException("rejected");
+        }));
+
+        assertEquals(0, service.getCurrentVersion());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM change", Integer.class));
+        assertEquals(1, service.writeVersioned(this::record));
+    }
+
+    private long record(long version) {
+        jdbcTemplate.update("INSERT INTO change (version) VALUES (?)", version);
+        return version;
+    }
+
+    private ChangeVersionService instance(long highestStoredVersion) {
+        WorkSessionRepository sessions = mock(WorkSessionRepository.class);
+        WorkSessionTombstoneRepository tombstones = mock(WorkSessionTombstoneRepository.class);
+        when(sessions.findMaxChangeVersion()).thenReturn(highestStoredVersion);
+        ChangeVersionService service = new ChangeVersionService(sessions, tombstones, jdbcTemplate, transactionTemplate);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,127 @@
+package de.timbang.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import de.timbang.backend.model.dto.response.BackupResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Latency of single-row clock-in style writes on a WAL database of about half a
+ * million sessions, without a backup and while {@link DatabaseBackupService} writes
+ * a snapshot from another connection.
+ */
+@Tag("benchmark")
+class DatabaseBackupBenchmarkTests {
+
+    private static final int SESSIONS = 500_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writesAreNotStalledByBackups() throws Exception {
+        Path database = tempDir.resolve("database.db");
+        String url = "jdbc:sqlite:" + database;
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url));
+        jdbcTemplate.execute("PRAGMA journal_mode=WAL");
+        jdbcTemplate.execute("CREATE TABLE work_session (id INTEGER PRIMARY KEY, user_id INTEGER, " +
+                "start_epoch INTEGER, end_epoch INTEGER, notes TEXT, change_version INTEGER, version INTEGER DEFAULT 0)");
+        jdbcTemplate.execute("CREATE INDEX idx_work_session_user_start ON work_session (user_id, start_epoch, end_epoch)");
+        fill(url);
+
+        DatabaseBackupService backupService = new DatabaseBackupService(jdbcTemplate, new SimpleMeterRegistry(),
+                tempDir.resolve("backups"), 2);
+
+        try (Connection writer = DriverManager.getConnection(url)) {
+            writer.createStatement().execute("PRAGMA busy_timeout=5000");
+            long[] idle = timeWrites(writer, 2_000, SESSIONS + 1);
+            report("write, no backup", idle);
+
+            CompletableFuture<BackupResponse> backup = CompletableFuture.supplyAsync(backupService::backup);
+            int written = 0;
+            long[] during = new long[20_000];
+            while (!backup.isDone() && written < during.length) {
+                during[written] = timeWrites(writer, 1, SESSIONS + 10_000 + written)[0];
+                written++;
+            }
+            BackupResponse result = backup.join();
+            report("write, during backup (" + written + ")", Arrays.copyOf(during, Math.max(written, 1)));
+            System.out.printf("[benchmark] %-40s %,10d ms, %,d bytes%n", "backup", result.durationMillis(), result.sizeBytes());
+
+            assertTrue(Files.size(tempDir.resolve("backups").resolve(result.name())) > 0);
+            try (Connection copy = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("backups").resolve(result.name()))) {
+                var rs = copy.createStatement().executeQuery("SELECT COUNT(*) FROM work_session WHERE id <= " + SESSIONS);
+                rs.next();
+                assertEquals(SESSIONS, rs.getInt(1));
+            }
+            assertTrue(percentile(Arrays.copyOf(during, Math.max(written, 1)), 0.99) < 200_000_000L);
+        }
+    }
+
+    private static long[] timeWrites(Connection connection, int count, long firstId) throws Exception {
+        long[] nanos = new long[count];
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO work_session (id, user_id, start_epoch, notes, change_version) VALUES (?, 1, ?, 'clock-in', ?)")) {
+            for (int i = 0; i < count; i++) {
+                long start = System.nanoTime();
+                insert.setLong(1, firstId + i);
+                insert.setLong(2, 1_700_000_000L + i);
+                insert.setLong(3, firstId + i);
+                insert.executeUpdate();
+                nanos[i] = System.nanoTime() - start;
+            }
+        }
+        return nanos;
+    }
+
+    private static void report(String name, long[] nanos) {
+        double average = Arrays.stream(nanos).average().orElse(0) / 1_000.0;
+        System.out.printf("[benchmark] %-40s %,10.1f us avg, %,10.1f us p99%n", name, average,
+                percentile(nanos, 0.99) / 1_000.0);
+    }
+
+    private static long percentile(long[] nanos, double percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(percentile * sorted.length))];
+    }
+
+    private static void fill(String url) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url)) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO work_session (id, user_id, start_epoch, end_epoch, notes, change_version) VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (int i = 1; i <= SESSIONS; i++) {
+                    long start = 1_600_000_000L + i * 600L;
+                    insert.setLong(1, i);
+                    insert.setLong(2, 1 + i % 1_000);
+                    insert.setLong(3, start);
+                    insert.setLong(4, start + 28_800);
+                    insert.setString(5, "PROJ-" + (i % 500) + " review and planning notes");
+                    insert.setLong(6, i);
+                    insert.addBatch();
+                    if (i % 10_000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package de.timbang.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EntriesResponseCacheTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2025, 4, 1, 0, 0);
+
+    private final UserWriteVersions userWriteVersions = new UserWriteVersions();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void writeOfTheUserInvalidatesOnlyTheirEntries() {
+        EntriesResponseCache cache = cache(1024 * 1024);
+
+        assertEquals("[\"alice-1\"]", get(cache, "alice", "json"));
+        assertEquals("[\"alice-1\"]", get(cache, "alice", "json"));
+        assertEquals("[\"bob-2\"]", get(cache, "bob", "json"));
+        assertEquals(2, loads.get());
+
+        userWriteVersions.bump("alice");
+
+        assertEquals("[\"alice-3\"]", get(cache, "alice", "json"));
+        assertEquals("[\"alice-3\"]", get(cache, "alice", "json"));
+        assertEquals("[\"bob-2\"]", get(cache, "bob", "json"));
+        assertEquals(3, loads.get());
+        // The compact representation is cached on its own
+        assertEquals("[\"alice-4\"]", get(cache, "alice", "compact"));
+        assertEquals(3, cache.getEntryCount());
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedBeyondTheByteLimit() {
+        // Each body is 11 bytes, room for two
+        EntriesResponseCache cache = cache(22);
+
+        get(cache, "alice", "json");
+        get(cache, "bobby", "json");
+        get(cache, "alice", "json");
+        get(cache, "carol", "json");
+
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(22, cache.getUsedBytes());
+        get(cache, "alice", "json");
+        get(cache, "bobby", "json");
+        // alice was used more recently than bobby and stayed, bobby was loaded again
+        assertEquals(4, loads.get());
+    }
+
+    private EntriesResponseCache cache(long maxBytes) {
+        return new EntriesResponseCache(new ObjectMapper(), userWriteVersions, new SimpleMeterRegistry(), true, maxBytes);
+    }
+
+    private String get(EntriesResponseCache cache, String username, String representation) {
+        return new String(cache.getJson(username, START, END, representation,
+                () -> List.of(username + "-" + loads.incrementAndGet())));
+    }
+}
@@ -0,0 +1,93 @@
+package de.timbang.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import de.timbang.backend.model.Holiday;
+import de.timbang.backend.model.State;
+import de.timbang.backend.repository.HolidayRepository;
+
+class HolidayServiceSingleFlightTests {
+
+    private static final int CALLERS = 32;
+
+    @Test
+    void concurrentCallersForTheSameStateShareOneQuery() throws Exception {
+        HolidayRepository repository = mock(HolidayRepository.class);
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        List<Holiday> holidays = List.of(Holiday.builder()
+                .name("Tag der Deutschen Einheit")
+                .date(LocalDate.of(2025, 10, 3))
+                .state(State.BY)
+                .build());
+        when(repository.findHolidayByState(State.BY)).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await(10, TimeUnit.SECONDS);
+            return holidays;
+        });
+
+        HolidayService holidayService = new HolidayService(repository, mock(WebClient.class),
+                mock(ApplicationEventPublisher.class), mock(SchedulerLeaseService.class), mock(TransactionTemplate.class));
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Thread> callerThreads = new ArrayList<>();
+        List<Future<List<Holiday>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    synchronized (callerThreads) {
+                        callerThreads.add(Thread.currentThread());
+                    }
+                    return holidayService.getHolidaysByState(State.BY);
+                }));
+            }
+
+            // Hold the first query open until every caller is parked: either in the query or waiting on it
+            assertTrue(queryStarted.await(10, TimeUnit.SECONDS));
+            awaitAllWaiting(callerThreads);
+            releaseQuery.countDown();
+
+            List<Holiday> first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<List<Holiday>> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(repository, times(1)).findHolidayByState(State.BY);
+    }
+
+    private static void awaitAllWaiting(List<Thread> threads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            synchronized (threads) {
+                if (threads.size() == CALLERS && threads.stream().allMatch(thread ->
+                        thread.getState() == Thread.State.WAITING || thread.getState() == Thread.State.TIMED_WAITING)) {
+                    return;
+                }
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Callers did not all block on the shared query");
+    }
+}
@@ -0,0 +1,37 @@
+package de.timbang.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import de.timbang.backend.exception.UnprocessableEntityException;
+import de.timbang.backend.model.dto.request.ClockEntryRequest;
+
+class IdempotencyStoreTests {
+
+    private final IdempotencyStore store = new IdempotencyStore(
+            new ObjectMapper().registerModule(new JavaTimeModule()), 60, 100);
+
+    @Test
+    void replaysTheSameRequestAndRejectsADifferentOne() {
+        AtomicInteger writes = new AtomicInteger();
+        ClockEntryRequest request = new ClockEntryRequest("standup", LocalDateTime.of(2025, 3, 10, 8, 0));
+
+        assertEquals(1, store.execute("alice", "clock-in", "key-1", request, writes::incrementAndGet));
+        assertEquals(1, store.execute("alice", "clock-in", "key-1",
+                new ClockEntryRequest("standup", LocalDateTime.of(2025, 3, 10, 8, 0)), writes::incrementAndGet));
+
+        assertThrows(UnprocessableEntityException.class, () -> store.execute("alice", "clock-in", "key-1",
+                new ClockEntryRequest("standup", LocalDateTime.of(2025, 3, 10, 9, 0)), writes::incrementAndGet));
+        assertThrows(UnprocessableEntityException.class,
+                () -> store.execute("alice", "clock-in", "key-1", null, writes::incrementAndGet));
+        assertEquals(1, writes.get());
+    }
+}
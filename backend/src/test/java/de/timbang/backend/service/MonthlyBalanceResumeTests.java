@@ -0,0 +1,170 @@
+package de.timbang.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.timbang.backend.model.BalanceJobRun;
+import de.timbang.backend.repository.BalanceJobRunRepository;
+import de.timbang.backend.repository.MonthlyBalanceRepository;
+import de.timbang.backend.repository.UserRepository;
+import de.timbang.backend.repository.WorkSessionRepository;
+import de.timbang.backend.repository.WorkSessionTombstoneRepository;
+
+class MonthlyBalanceResumeTests {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 3);
+
+    private Connection connection;
+    private FailingJdbcTemplate jdbcTemplate;
+    private MonthlyBalanceService service;
+    private BalanceJobRun storedRun;
+    private ChangeVersionService changeVersionService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        DataSource dataSource = new SingleConnectionDataSource(connection, true);
+        jdbcTemplate = new FailingJdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE user (id INTEGER PRIMARY KEY, zone_id TEXT)");
+        jdbcTemplate.execute("CREATE TABLE work_config (user_id INTEGER, expected_monthly_hours INTEGER)");
+        jdbcTemplate.execute("CREATE TABLE work_session (user_id INTEGER, start_epoch INTEGER, end_epoch INTEGER, " +
+                "change_version INTEGER)");
+        jdbcTemplate.execute("CREATE TABLE work_session_tombstone (user_id INTEGER, change_version INTEGER)");
+        jdbcTemplate.execute("CREATE TABLE change_version_counter (id INTEGER PRIMARY KEY, version INTEGER NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE monthly_balance (user_id INTEGER, report_year INTEGER, report_month INTEGER, " +
+                "worked_seconds INTEGER, expected_hours INTEGER, session_count INTEGER, generated_epoch INTEGER, " +
+                "UNIQUE (user_id, report_year, report_month))");
+        jdbcTemplate.execute("CREATE TABLE balance_job_run (id INTEGER PRIMARY KEY, last_user_id INTEGER, processed_users INTEGER)");
+        jdbcTemplate.update("INSERT INTO balance_job_run (id, last_user_id, processed_users) VALUES (1, 0, 0)");
+
+        long start = LocalDateTime.of(2025, 3, 10, 8, 0).toEpochSecond(ZoneOffset.UTC);
+        for (long userId = 1; userId <= 4; userId++) {
+            jdbcTemplate.update("INSERT INTO user (id, zone_id) VALUES (?, 'UTC')", userId);
+            jdbcTemplate.update("INSERT INTO work_session VALUES (?, ?, ?, ?)", userId, start, start + userId * 3600, userId);
+        }
+
+        // Stands in for the JPA repository: one run row that survives between the two runs
+        BalanceJobRunRepository jobRunRepository = mock(BalanceJobRunRepository.class);
+        when(jobRunRepository.findByReportYearAndReportMonth(MONTH.getYear(), MONTH.getMonthValue()))
+                .thenAnswer(invocation -> Optional.ofNullable(storedRun));
+        when(jobRunRepository.save(any(BalanceJobRun.class))).thenAnswer(invocation -> {
+            BalanceJobRun run = invocation.getArgument(0);
+            run.setId(1L);
+            storedRun = run;
+            return run;
+        });
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        WorkSessionRepository sessionRepository = mock(WorkSessionRepository.class);
+        when(sessionRepository.findMaxChangeVersion()).thenReturn(4L);
+        changeVersionService = new ChangeVersionService(sessionRepository, mock(WorkSessionTombstoneRepository.class),
+                jdbcTemplate, transactionTemplate);
+        changeVersionService.init();
+        service = new MonthlyBalanceService(jdbcTemplate, transactionTemplate, jobRunRepository,
+                mock(MonthlyBalanceRepository.class), mock(UserRepository.class), changeVersionService,
+                mock(SessionArchiveService.class), 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void resumesAfterTheLastCommittedChunk() {
+        jdbcTemplate.failBalanceWrite = 2;
+        assertThrows(DataAccessResourceFailureException.class, () -> service.run(MONTH));
+
+        assertEquals(BalanceJobRun.Status.FAILED, storedRun.getStatus());
+        assertEquals(2, storedRun.getLastUserId());
+        assertEquals(List.of(1L, 2L), balanceUsers());
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT last_user_id FROM balance_job_run WHERE id = 1", Long.class));
+
+        jdbcTemplate.balanceWrites.clear();
+        BalanceJobRun resumed = service.run(MONTH);
+
+        assertEquals(BalanceJobRun.Status.COMPLETED, resumed.getStatus());
+        assertEquals(4, resumed.getLastUserId());
+        assertEquals(4, resumed.getProcessedUsers());
+        // Only the chunk that failed is written again
+        assertEquals(List.of(List.of(3L, 4L)), jdbcTemplate.balanceWrites);
+        assertEquals(List.of(1L, 2L, 3L, 4L), balanceUsers());
+        assertEquals(4 * 3600L, jdbcTemplate.queryForObject(
+                "SELECT worked_seconds FROM monthly_balance WHERE user_id = 4", Long.class));
+    }
+
+    @Test
+    void completedMonthPicksUpLaterChangesOfTheirUsersOnly() {
+        service.run(MONTH);
+        assertEquals(4, storedRun.getChangeVersion());
+        jdbcTemplate.balanceWrites.clear();
+
+        // After month end user 2 fixes a session of the month and user 3 deletes one
+        changeVersionService.writeVersioned(version -> jdbcTemplate.update(
+                "UPDATE work_session SET end_epoch = end_epoch + 3600, change_version = ? WHERE user_id = 2", version));
+        changeVersionService.writeVersioned(version -> {
+            jdbcTemplate.update("DELETE FROM work_session WHERE user_id = 3");
+            return jdbcTemplate.update("INSERT INTO work_session_tombstone VALUES (3, ?)", version);
+        });
+        BalanceJobRun rerun = service.run(MONTH);
+
+        assertEquals(BalanceJobRun.Status.COMPLETED, rerun.getStatus());
+        assertEquals(6, rerun.getChangeVersion());
+        assertEquals(List.of(List.of(2L, 3L)), jdbcTemplate.balanceWrites);
+        assertEquals(List.of(3600L, 3 * 3600L, 0L, 4 * 3600L), jdbcTemplate.queryForList(
+                "SELECT worked_seconds FROM monthly_balance ORDER BY user_id", Long.class));
+
+        // Nothing changed since
+        jdbcTemplate.balanceWrites.clear();
+        service.run(MONTH);
+        assertEquals(List.of(), jdbcTemplate.balanceWrites);
+    }
+
+    private List<Long> balanceUsers() {
+        return jdbcTemplate.queryForList("SELECT user_id FROM monthly_balance ORDER BY user_id", Long.class);
+    }
+
+    private static final class FailingJdbcTemplate extends JdbcTemplate {
+
+        final List<List<Long>> balanceWrites = new ArrayList<>();
+        int failBalanceWrite;
+
+        FailingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (sql.contains("monthly_balance")) {
+                balanceWrites.add(batchArgs.stream().map(row -> (Long) row[0]).toList());
+                if (balanceWrites.size() == failBalanceWrite) {
+                    throw new DataAccessResourceFailureException("interrupted");
+                }
+            }
+            return super.batchUpdate(sql, batchArgs);
+        }
+    }
+}
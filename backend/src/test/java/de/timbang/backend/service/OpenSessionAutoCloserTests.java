@@ -0,0 +1,135 @@
+package de.timbang.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import de.timbang.backend.audit.SessionAuditLog;
+import de.timbang.backend.repository.WorkSessionRepository;
+import de.timbang.backend.repository.WorkSessionTombstoneRepository;
+
+class OpenSessionAutoCloserTests {
+
+    private static final Instant NOW = Instant.parse("2025-03-12T12:00:00Z");
+    private static final long HOUR = 3600;
+
+    private Connection connection;
+    private JdbcTemplate jdbcTemplate;
+    private final SessionTimelineCache timelineCache = mock(SessionTimelineCache.class);
+    private final UserWriteVersions userWriteVersions = new UserWriteVersions();
+    private final SessionAuditLog sessionAuditLog = mock(SessionAuditLog.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private OpenSessionAutoCloser closer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        DataSource dataSource = new SingleConnectionDataSource(connection, true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        jdbcTemplate.execute("CREATE TABLE user (id INTEGER PRIMARY KEY, username VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE work_config (id INTEGER PRIMARY KEY, user_id BIGINT, " +
+                "expected_weekly_hours INTEGER, work_days VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE work_session (id INTEGER PRIMARY KEY AUTOINCREMENT, user_id BIGINT, " +
+                "start_epoch BIGINT, end_epoch BIGINT, notes VARCHAR(255), change_version BIGINT, " +
+                "version INTEGER NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE change_version_counter (id INTEGER PRIMARY KEY, version BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO user (id, username) VALUES (1, 'alice'), (2, 'bob')");
+        // Alice expects 8h a day, Bob has no config and gets the cap
+        jdbcTemplate.update("INSERT INTO work_config (user_id, expected_weekly_hours, work_days) VALUES (1, 40, '1,2,3,4,5')");
+
+        ChangeVersionService changeVersionService = new ChangeVersionService(mock(WorkSessionRepository.class),
+                mock(WorkSessionTombstoneRepository.class), jdbcTemplate, transactionTemplate);
+        changeVersionService.init();
+        closer = new OpenSessionAutoCloser(jdbcTemplate, transactionTemplate, changeVersionService, timelineCache,
+                userWriteVersions, new WorkCalendarService(mock(HolidayService.class)), sessionAuditLog, eventPublisher,
+                true, OpenSessionAutoCloser.Policy.EXPECTED_DAILY_HOURS, Duration.ofHours(16), Duration.ofHours(10), 1);
+        closer.createIndex();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void closesStaleSessionsAtTheExpectedDailyHoursOrTheCap() {
+        long aliceStart = NOW.getEpochSecond() - 20 * HOUR;
+        long bobStart = NOW.getEpochSecond() - 30 * HOUR;
+        long aliceSession = insertSession(1, aliceStart, null, "forgot");
+        long bobSession = insertSession(2, bobStart, null, null);
+        long recentSession = insertSession(1, NOW.getEpochSecond() - 2 * HOUR, null, null);
+        long closedSession = insertSession(2, bobStart - 24 * HOUR, bobStart - 20 * HOUR, null);
+
+        // Batches of one, so the keyset walks all of them
+        assertEquals(2, closer.closeStaleSessions(NOW));
+
+        assertEquals(aliceStart + 8 * HOUR, endOf(aliceSession));
+        assertEquals(bobStart + 10 * HOUR, endOf(bobSession));
+        assertNull(endOf(recentSession));
+        assertEquals(bobStart - 20 * HOUR, endOf(closedSession));
+        assertEquals(1, versionOf(aliceSession));
+        // Oldest first, one versioned write per batch
+        assertEquals(1, changeVersionOf(bobSession));
+        assertEquals(2, changeVersionOf(aliceSession));
+
+        verify(sessionAuditLog).recordAutoClose(aliceSession, 1, Instant.ofEpochSecond(aliceStart), "forgot",
+                Instant.ofEpochSecond(aliceStart + 8 * HOUR), 2);
+        verify(sessionAuditLog).recordAutoClose(bobSession, 2, Instant.ofEpochSecond(bobStart), null,
+                Instant.ofEpochSecond(bobStart + 10 * HOUR), 1);
+        verify(sessionAuditLog, never()).recordAutoClose(eq(recentSession), anyLong(), any(), any(), any(), anyLong());
+        verify(eventPublisher).publishEvent(new SessionsAutoClosedEvent("alice", List.of(aliceSession), 2));
+        verify(eventPublisher).publishEvent(new SessionsAutoClosedEvent("bob", List.of(bobSession), 1));
+        verify(timelineCache).invalidate(1L);
+        assertEquals(1, userWriteVersions.current("bob"));
+    }
+
+    @Test
+    void secondRunFindsNothingToClose() {
+        insertSession(1, NOW.getEpochSecond() - 20 * HOUR, null, null);
+
+        assertEquals(1, closer.closeStaleSessions(NOW));
+        assertEquals(0, closer.closeStaleSessions(NOW.plusSeconds(HOUR)));
+    }
+
+    private long insertSession(long userId, long start, Long end, String notes) {
+        jdbcTemplate.update("INSERT INTO work_session (user_id, start_epoch, end_epoch, notes) VALUES (?, ?, ?, ?)",
+                userId, start, end, notes);
+        return jdbcTemplate.queryForObject("SELECT last_insert_rowid()", Long.class);
+    }
+
+    private Long endOf(long sessionId) {
+        return jdbcTemplate.queryForObject("SELECT end_epoch FROM work_session WHERE id = ?", Long.class, sessionId);
+    }
+
+    private long versionOf(long sessionId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM work_session WHERE id = ?", Long.class, sessionId);
+    }
+
+    private long changeVersionOf(long sessionId) {
+        return jdbcTemplate.queryForObject("SELECT change_version FROM work_session WHERE id = ?", Long.class, sessionId);
+    }
+}
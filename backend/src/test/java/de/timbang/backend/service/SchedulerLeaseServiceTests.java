@@ -0,0 +1,73 @@
+package de.timbang.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+class SchedulerLeaseServiceTests {
+
+    private static final String JOB = "holiday-import";
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private Connection connection;
+    private JdbcTemplate jdbcTemplate;
+    // Two instances sharing the database
+    private SchedulerLeaseService first;
+    private SchedulerLeaseService second;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        jdbcTemplate.execute("CREATE TABLE scheduler_lease (name VARCHAR(255) PRIMARY KEY, owner VARCHAR(255), " +
+                "expires_epoch BIGINT NOT NULL, generation BIGINT NOT NULL)");
+        first = new SchedulerLeaseService(jdbcTemplate);
+        second = new SchedulerLeaseService(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    void heldLeaseIsTakenOverOnlyOnceExpired() {
+        assertTrue(first.tryAcquire(JOB, TTL));
+        assertFalse(second.tryAcquire(JOB, TTL));
+        // The holder may extend its own lease
+        assertTrue(first.tryAcquire(JOB, TTL));
+
+        // The holder crashed and its lease ran out
+        jdbcTemplate.update("UPDATE scheduler_lease SET expires_epoch = expires_epoch - ? WHERE name = ?",
+                TTL.toSeconds() + 1, JOB);
+
+        assertTrue(second.tryAcquire(JOB, TTL));
+        assertFalse(first.tryAcquire(JOB, TTL));
+    }
+
+    @Test
+    void releasedLeaseIsFreeAndCompletedRunsAreCounted() {
+        assertTrue(first.tryAcquire(JOB, TTL));
+        assertEquals(1, first.completeRun(JOB));
+        // Not the holder: neither counts a run nor releases the lease
+        assertEquals(1, second.completeRun(JOB));
+        second.release(JOB);
+        assertFalse(second.tryAcquire(JOB, TTL));
+
+        first.release(JOB);
+        assertTrue(second.tryAcquire(JOB, TTL));
+        assertEquals(2, second.completeRun(JOB));
+        assertEquals(2, first.generation(JOB));
+        assertEquals(0, first.generation("unknown"));
+    }
+}
@@ -0,0 +1,122 @@
+package de.timbang.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Latency of the hot-path range read (one user's current week) while years of history
+ * are added, once with everything in {@code work_session} and once after
+ * {@link SessionArchiveService} moved the old years into their partitions.
+ */
+@Tag("benchmark")
+class SessionArchiveBenchmarkTests {
+
+    private static final int USERS = 1_000;
+    private static final int SESSIONS_PER_USER_YEAR = 220;
+    private static final long YEAR_SECONDS = 365L * 24 * 3600;
+    private static final String HOT_RANGE_QUERY = "SELECT id, start_epoch, end_epoch, notes FROM work_session " +
+            "WHERE user_id = ? AND start_epoch BETWEEN ? AND ? ORDER BY id";
+
+    @Test
+    void hotReadsStayFlatAsArchivesGrow() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            SingleConnectionDataSource dataSource = new SingleConnectionDataSource(connection, true);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("CREATE TABLE user (id INTEGER PRIMARY KEY, username TEXT)");
+            jdbcTemplate.execute("CREATE TABLE work_session (id INTEGER PRIMARY KEY, user_id INTEGER, " +
+                    "start_epoch INTEGER, end_epoch INTEGER, notes TEXT, change_version INTEGER, version INTEGER DEFAULT 0)");
+            jdbcTemplate.execute("CREATE INDEX idx_work_session_user_start ON work_session (user_id, start_epoch, end_epoch)");
+            for (int userId = 1; userId <= USERS; userId++) {
+                jdbcTemplate.update("INSERT INTO user (id, username) VALUES (?, ?)", userId, "user" + userId);
+            }
+
+            SessionArchiveService archive = new SessionArchiveService(jdbcTemplate,
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                    new SessionTimelineCache(true, 64L << 20), new UserWriteVersions(),
+                    true, Duration.ofDays(365), 200);
+            archive.init();
+
+            long now = Instant.now().getEpochSecond();
+            long[] nextId = {1};
+            insertYear(connection, now - YEAR_SECONDS, nextId);
+            double baseline = hotReadMicros(jdbcTemplate, now);
+            System.out.printf("[benchmark] %-40s %,10.1f us/query%n", "hot read, no history", baseline);
+
+            int historyYears = 0;
+            double archived = baseline;
+            for (int step : new int[]{2, 4}) {
+                for (int i = 0; i < step; i++) {
+                    historyYears++;
+                    insertYear(connection, now - (historyYears + 1) * YEAR_SECONDS, nextId);
+                }
+                double unarchived = hotReadMicros(jdbcTemplate, now);
+                System.out.printf("[benchmark] %-40s %,10.1f us/query%n", "hot read, " + historyYears + " years in main table", unarchived);
+
+                archive.archiveOlderThan(Instant.ofEpochSecond(now - YEAR_SECONDS));
+                archived = hotReadMicros(jdbcTemplate, now);
+                System.out.printf("[benchmark] %-40s %,10.1f us/query%n", "hot read, " + historyYears + " years archived", archived);
+            }
+
+            assertEquals((long) historyYears * USERS * SESSIONS_PER_USER_YEAR, archive.getArchivedSessions());
+            assertTrue(archive.covers(null));
+            assertTrue(archived < Math.max(5 * baseline, 500));
+        }
+    }
+
+    private static double hotReadMicros(JdbcTemplate jdbcTemplate, long now) throws Exception {
+        Random random = new Random(42);
+        long weekStart = now - 7 * 24 * 3600;
+        int runs = 5_000;
+        for (int i = 0; i < 1_000; i++) {
+            jdbcTemplate.queryForList(HOT_RANGE_QUERY, 1 + random.nextInt(USERS), weekStart, now);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            jdbcTemplate.queryForList(HOT_RANGE_QUERY, 1 + random.nextInt(USERS), weekStart, now);
+        }
+        return (System.nanoTime() - start) / 1_000.0 / runs;
+    }
+
+    // One year of sessions for every user, spread evenly from yearStart on
+    private static void insertYear(Connection connection, long yearStart, long[] nextId) throws Exception {
+        long spacing = YEAR_SECONDS / SESSIONS_PER_USER_YEAR;
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO work_session (id, user_id, start_epoch, end_epoch, notes, change_version) VALUES (?, ?, ?, ?, ?, ?)")) {
+            int batched = 0;
+            for (int userId = 1; userId <= USERS; userId++) {
+                for (int i = 0; i < SESSIONS_PER_USER_YEAR; i++) {
+                    long start = yearStart + i * spacing + userId;
+                    long id = nextId[0]++;
+                    insert.setLong(1, id);
+                    insert.setLong(2, userId);
+                    insert.setLong(3, start);
+                    insert.setLong(4, start + 8 * 3600);
+                    insert.setString(5, i % 3 == 0 ? "PROJ-" + (i % 50) : null);
+                    insert.setLong(6, id);
+                    insert.addBatch();
+                    if (++batched % 10_000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+}
@@ -0,0 +1,79 @@
+package de.timbang.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import de.timbang.backend.model.User;
+import de.timbang.backend.model.WorkSession;
+
+/**
+ * Compares the retained heap of 10k sessions held as entities with the same sessions
+ * held as a {@link SessionTimeline}. Measured via used heap after GC, so numbers are
+ * approximate; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SessionTimelineFootprintBenchmarkTests {
+
+    private static final int SESSIONS = 10_000;
+    private static final int COPIES = 20;
+
+    @Test
+    void timelineUsesLessHeapThanEntityList() {
+        long entityBytes = retainedBytesPerCopy(SessionTimelineFootprintBenchmarkTests::entities);
+        long timelineBytes = retainedBytesPerCopy(copy -> SessionTimeline.of(entities(copy)));
+        long estimated = SessionTimeline.of(entities(0)).estimatedBytes();
+
+        System.out.printf("[benchmark] %-40s %,12d bytes / %,d sessions%n", "entity list", entityBytes, SESSIONS);
+        System.out.printf("[benchmark] %-40s %,12d bytes / %,d sessions (estimate %,d)%n",
+                "session timeline", timelineBytes, SESSIONS, estimated);
+
+        assertTrue(timelineBytes < entityBytes);
+    }
+
+    private static long retainedBytesPerCopy(IntFunction<Object> factory) {
+        Runtime runtime = Runtime.getRuntime();
+        long before = usedAfterGc(runtime);
+        List<Object> retained = new ArrayList<>();
+        for (int copy = 0; copy < COPIES; copy++) {
+            retained.add(factory.apply(copy));
+        }
+        long after = usedAfterGc(runtime);
+        retained.clear();
+        return (after - before) / COPIES;
+    }
+
+    private static long usedAfterGc(Runtime runtime) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Fresh objects per copy, including the note strings, like entities hydrated per request
+    private static List<WorkSession> entities(int copy) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark.user");
+
+        List<WorkSession> sessions = new ArrayList<>(SESSIONS);
+        long start = 1_577_865_600L;
+        for (int i = 0; i < SESSIONS; i++) {
+            WorkSession session = new WorkSession();
+            session.setId((long) i + 1);
+            session.setUser(user);
+            session.setStartTime(Instant.ofEpochSecond(start + i * 86_400L));
+            session.setEndTime(Instant.ofEpochSecond(start + i * 86_400L + 28_800L));
+            session.setNotes(i % 3 == 0 ? "PROJ-" + (i % 100) + " review " + copy : null);
+            session.setChangeVersion((long) i);
+            sessions.add(session);
+        }
+        return sessions;
+    }
+}
@@ -0,0 +1,98 @@
+package de.timbang.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import de.timbang.backend.model.Holiday;
+import de.timbang.backend.model.State;
+import de.timbang.backend.model.WorkConfig;
+
+class WorkCalendarServiceTests {
+
+    private static final List<Holiday> HOLIDAYS = List.of(
+            holiday(LocalDate.of(2024, 1, 1)),
+            holiday(LocalDate.of(2024, 3, 29)),
+            holiday(LocalDate.of(2024, 5, 1)),
+            holiday(LocalDate.of(2024, 12, 25)),
+            holiday(LocalDate.of(2024, 12, 28)),
+            holiday(LocalDate.of(2025, 1, 1)),
+            holiday(LocalDate.of(2025, 10, 3)));
+
+    private final HolidayService holidayService = mock(HolidayService.class);
+    private final WorkCalendarService calendar = new WorkCalendarService(holidayService);
+
+    @Test
+    void monthsMatchTheDayByDayCount() {
+        when(holidayService.getHolidaysByState(State.BY)).thenReturn(HOLIDAYS);
+
+        for (String workDays : List.of("1,2,3,4,5", "1,3,5", "6,7", "1,2,3,4,5,6,7")) {
+            for (boolean showHoliday : List.of(true, false)) {
+                WorkConfig config = config(workDays, showHoliday);
+                for (YearMonth month = YearMonth.of(2023, 12); month.isBefore(YearMonth.of(2025, 3)); month = month.plusMonths(1)) {
+                    LocalDate start = month.atDay(1);
+                    LocalDate end = month.atEndOfMonth();
+                    assertEquals(countDayByDay(config, start, end), calendar.countWorkingDays(config, start, end),
+                            month + " " + workDays + " " + showHoliday);
+                }
+                LocalDate start = LocalDate.of(2023, 12, 20);
+                LocalDate end = LocalDate.of(2025, 1, 10);
+                assertEquals(countDayByDay(config, start, end), calendar.countWorkingDays(config, start, end));
+            }
+        }
+        assertEquals(22, calendar.countWorkingDays(config("1,2,3,4,5", true),
+                LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31)));
+    }
+
+    @Test
+    void calendarBuiltDuringAnImportIsNotCached() {
+        WorkConfig config = config("1,2,3,4,5", true);
+        LocalDate start = LocalDate.of(2024, 5, 1);
+        LocalDate end = LocalDate.of(2024, 5, 31);
+        // The import lands while the first calendar is built from the holidays read before it
+        when(holidayService.getHolidaysByState(State.BY))
+                .thenAnswer(invocation -> {
+                    calendar.onHolidaysImported();
+                    return List.of();
+                })
+                .thenReturn(HOLIDAYS);
+
+        assertEquals(23, calendar.countWorkingDays(config, start, end));
+        assertEquals(22, calendar.countWorkingDays(config, start, end));
+        assertEquals(22, calendar.countWorkingDays(config, start, end));
+    }
+
+    private static int countDayByDay(WorkConfig config, LocalDate start, LocalDate end) {
+        Set<LocalDate> holidays = config.isShowHoliday()
+                ? Set.copyOf(HOLIDAYS.stream().map(Holiday::getDate).toList())
+                : Set.of();
+        int count = 0;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            if (config.getWorkDays().contains(Integer.toString(dayOfWeek.getValue())) && !holidays.contains(date)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static WorkConfig config(String workDays, boolean showHoliday) {
+        WorkConfig config = new WorkConfig();
+        config.setWorkDays(workDays);
+        config.setState(State.BY);
+        config.setShowHoliday(showHoliday);
+        return config;
+    }
+
+    private static Holiday holiday(LocalDate date) {
+        return Holiday.builder().date(date).name("Holiday").state(State.BY).build();
+    }
+}
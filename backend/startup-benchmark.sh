@@ -0,0 +1,74 @@
+#!/bin/bash
+
+# Time to first request of the backend in each startup mode: the median over RUNS
+# starts of the time from launching the JVM until POST /api/v1/auth/login answers.
+# Every run starts on a copy of the same database with the schema already in place.
+#
+# Usage (from backend/, needs a JDK 21+ and curl): ./startup-benchmark.sh [runs]
+
+# Exit on error
+set -e
+
+RUNS=${1:-5}
+PORT=18080
+WORK=$(mktemp -d)
+trap 'kill $PID 2>/dev/null || true; rm -rf "$WORK"' EXIT
+
+# Build with AOT-generated bean definitions and extract the jar, CDS needs the extracted layout
+./mvnw -q -B -DskipTests -Paot package
+JAR=$(ls target/*.jar | grep -v plain | head -1)
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/app" > /dev/null
+APP="$WORK/app/$(basename "$JAR")"
+
+# Milliseconds from launch until the first request is answered, the app is stopped afterwards
+time_to_first_request() {
+    rm -f "$WORK"/run.db*
+    cp "$WORK/template.db" "$WORK/run.db"
+    local start=$(date +%s%N)
+    java "$@" -Dspring.datasource.url="jdbc:sqlite:$WORK/run.db" -Dserver.port=$PORT \
+        -Dapp.backup.directory="$WORK/backups" -jar "$APP" > "$WORK/app.log" 2>&1 &
+    PID=$!
+    until curl -s -o /dev/null -X POST "http://localhost:$PORT/api/v1/auth/login" \
+            -H 'Content-Type: application/json' -d '{"username":"startup-benchmark","password":"-"}'; do
+        if ! kill -0 $PID 2>/dev/null; then
+            cat "$WORK/app.log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    local end=$(date +%s%N)
+    kill $PID
+    wait $PID 2>/dev/null || true
+    echo $(( (end - start) / 1000000 ))
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+# Create the schema once with ddl-auto=update, every mode starts from a copy of it
+touch "$WORK/template.db"
+time_to_first_request -Dspring.profiles.active=prod > /dev/null
+cp "$WORK/run.db" "$WORK/template.db"
+
+# Class data sharing archive from a training run that stops after the context refresh
+cp "$WORK/template.db" "$WORK/training.db"
+java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.context.exit=onRefresh \
+    -Dspring.profiles.active=prod,faststart -Dspring.aot.enabled=true \
+    -Dspring.datasource.url="jdbc:sqlite:$WORK/training.db" -jar "$APP" > /dev/null 2>&1
+
+run_mode() {
+    local name=$1
+    shift
+    local times=()
+    for ((i = 0; i < RUNS; i++)); do
+        times+=("$(time_to_first_request "$@")")
+    done
+    printf "%-28s %6s ms  (runs: %s)\n" "$name" "$(printf '%s\n' "${times[@]}" | median)" "${times[*]}"
+}
+
+run_mode "default" -Dspring.profiles.active=prod
+run_mode "faststart" -Dspring.profiles.active=prod,faststart
+run_mode "faststart + AOT" -Dspring.profiles.active=prod,faststart -Dspring.aot.enabled=true
+run_mode "faststart + AOT + CDS" -Dspring.profiles.active=prod,faststart -Dspring.aot.enabled=true \
+    -XX:SharedArchiveFile="$WORK/app.jsa"